@@ -0,0 +1,298 @@
+package pablogventura.fugit.desktop;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+import pablogventura.fugit.face.AtlasRotaciones;
+import pablogventura.fugit.face.CampoEstrellas;
+import pablogventura.fugit.face.FaceGraphics;
+
+/**
+ * {@link FaceGraphics} on a desktop {@link Graphics2D}, so the face can be drawn and timed on an
+ * ordinary JVM. It tries to look like the Canvas backend, not to match it pixel by pixel.
+ */
+public class AwtFaceGraphics implements FaceGraphics {
+    /**
+     * Same stroke the Android text paint uses for the black outline.
+     */
+    private static final Stroke BORDE = new BasicStroke(3, BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND, 10);
+
+    private final BufferedImage[] mSprites = new BufferedImage[Sprite.values().length];
+    private final FontRenderContext mFontContext = new FontRenderContext(null, true, true);
+
+    private Font mSerif = new Font(Font.SERIF, Font.PLAIN, 1);
+    private Font mSansSerif = new Font(Font.SANS_SERIF, Font.PLAIN, 1);
+
+    private GradientPaint mGradient;
+    private int mGradientes;
+
+    private BufferedImage mTileEstrellas;
+    private CampoEstrellas mCampoEstrellas;
+
+    /**
+     * The sun and the moon already turned, one row per sprite, see {@link AtlasRotaciones}.
+     */
+    private final AtlasRotaciones mAtlas;
+    private final BufferedImage mImagenAtlas;
+    private boolean mAtlasInterpolado = true;
+    private int mCeldasRotadas;
+
+    private Graphics2D mGraphics;
+
+    public AwtFaceGraphics() {
+        mSprites[Sprite.SOL.ordinal()] = cargar("sol.png");
+        mSprites[Sprite.LUNA.ordinal()] = cargar("luna.png");
+
+        int ancho = 0;
+        int alto = 0;
+        for (BufferedImage sprite : mSprites) {
+            ancho = Math.max(ancho, sprite.getWidth());
+            alto = Math.max(alto, sprite.getHeight());
+        }
+        mAtlas = new AtlasRotaciones(ancho, alto);
+        int lado = mAtlas.getLado();
+        mImagenAtlas = new BufferedImage(AtlasRotaciones.CELDAS * lado, mSprites.length * lado,
+                BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    private static BufferedImage cargar(String nombre) {
+        InputStream in = AwtFaceGraphics.class.getResourceAsStream("/" + nombre);
+        if (in == null) {
+            throw new IllegalStateException("Missing sprite " + nombre);
+        }
+        try {
+            try {
+                return ImageIO.read(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't read sprite " + nombre, e);
+        }
+    }
+
+    /**
+     * Sets the graphics the next calls draw on, with the same quality settings as the Canvas
+     * backend.
+     */
+    public void setGraphics(Graphics2D graphics) {
+        mGraphics = graphics;
+        mGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        mGraphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        mGraphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    }
+
+    @Override
+    public void fillRect(float left, float top, float right, float bottom, int color) {
+        mGraphics.setColor(new Color(color, true));
+        mGraphics.fill(new Rectangle2D.Float(left, top, right - left, bottom - top));
+    }
+
+    @Override
+    public void fillGradient(float left, float top, float right, float bottom,
+                             float y0, int color0, float y1, int color1) {
+        if (mGradient == null || mGradient.getPoint1().getY() != y0 || mGradient.getPoint2().getY() != y1
+                || mGradient.getColor1().getRGB() != color0 || mGradient.getColor2().getRGB() != color1) {
+            mGradient = new GradientPaint(0, y0, new Color(color0, true), 0, y1, new Color(color1, true));
+            mGradientes++;
+        }
+        mGraphics.setPaint(mGradient);
+        mGraphics.fill(new Rectangle2D.Float(left, top, right - left, bottom - top));
+    }
+
+    @Override
+    public void drawSprite(Sprite sprite, float x, float y, float degrees, float px, float py,
+                           boolean interpolar) {
+        BufferedImage imagen = mSprites[sprite.ordinal()];
+        if (interpolar != mAtlasInterpolado) {
+            mAtlas.vaciar();
+            mAtlasInterpolado = interpolar;
+        }
+        int paso = AtlasRotaciones.paso(degrees);
+        int celda = mAtlas.buscar(sprite, paso);
+        if (celda < 0) {
+            celda = -celda - 1;
+            rotar(imagen, sprite.ordinal(), celda, paso, interpolar);
+        }
+
+        int lado = mAtlas.getLado();
+        float cx = x + imagen.getWidth() / 2f;
+        float cy = y + imagen.getHeight() / 2f;
+        float left = AtlasRotaciones.centroX(cx, cy, paso, px, py) - lado / 2f;
+        float top = AtlasRotaciones.centroY(cx, cy, paso, px, py) - lado / 2f;
+        // en pixeles enteros la copia es directa, sin volver a filtrar
+        int dx = Math.round(left);
+        int dy = Math.round(top);
+        int sx = celda * lado;
+        int sy = sprite.ordinal() * lado;
+        mGraphics.drawImage(mImagenAtlas, dx, dy, dx + lado, dy + lado, sx, sy, sx + lado, sy + lado, null);
+    }
+
+    /**
+     * Renders {@code imagen} turned {@code paso} steps into a cell of the atlas.
+     */
+    private void rotar(BufferedImage imagen, int fila, int celda, int paso, boolean interpolar) {
+        int lado = mAtlas.getLado();
+        Graphics2D g = mImagenAtlas.createGraphics();
+        g.clipRect(celda * lado, fila * lado, lado, lado);
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(celda * lado, fila * lado, lado, lado);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolar
+                ? RenderingHints.VALUE_INTERPOLATION_BILINEAR : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        double centroX = (celda + 0.5) * lado;
+        double centroY = (fila + 0.5) * lado;
+        g.rotate(Math.toRadians(AtlasRotaciones.grados(paso)), centroX, centroY);
+        g.translate(centroX - imagen.getWidth() / 2.0, centroY - imagen.getHeight() / 2.0);
+        g.drawImage(imagen, 0, 0, null);
+        g.dispose();
+        mCeldasRotadas++;
+    }
+
+    /**
+     * How many times a sprite had to be turned into the atlas.
+     */
+    int getCeldasRotadas() {
+        return mCeldasRotadas;
+    }
+
+    /**
+     * How many gradients were created so far. The Canvas backend builds a new shader for each.
+     */
+    int getGradientes() {
+        return mGradientes;
+    }
+
+    @Override
+    public void drawStarfield(CampoEstrellas campo, float cx, float cy, float degrees) {
+        if (campo != mCampoEstrellas) {
+            renderizarEstrellas(campo);
+        }
+        float mitad = campo.getLado() / 2f;
+        AffineTransform antes = mGraphics.getTransform();
+        mGraphics.translate(cx, cy);
+        mGraphics.rotate(Math.toRadians(degrees));
+        mGraphics.translate(-mitad, -mitad);
+        mGraphics.drawImage(mTileEstrellas, 0, 0, null);
+        mGraphics.setTransform(antes);
+    }
+
+    /**
+     * Renders {@code campo} into the star tile, reusing the image if it has the right size.
+     */
+    void renderizarEstrellas(CampoEstrellas campo) {
+        int lado = campo.getLado();
+        if (mTileEstrellas == null || mTileEstrellas.getWidth() != lado) {
+            mTileEstrellas = new BufferedImage(lado, lado, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        Graphics2D g = mTileEstrellas.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, lado, lado);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        Ellipse2D.Float estrella = new Ellipse2D.Float();
+        for (int i = 0; i < campo.getCantidad(); i++) {
+            float radio = campo.getRadio(i);
+            estrella.setFrame(campo.getX(i) - radio, campo.getY(i) - radio, 2 * radio, 2 * radio);
+            g.setColor(new Color(campo.getColor(i), true));
+            g.fill(estrella);
+        }
+        g.dispose();
+        mCampoEstrellas = campo;
+    }
+
+    @Override
+    public float measureText(String text, Fuente fuente, float size) {
+        return (float) fuente(fuente, size).getStringBounds(text, mFontContext).getWidth();
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, float degrees, float px, float py,
+                         Fuente fuente, float size, int color, boolean borde) {
+        AffineTransform antes = mGraphics.getTransform();
+        mGraphics.rotate(Math.toRadians(degrees), px, py);
+        GlyphVector glifos = fuente(fuente, size).createGlyphVector(mFontContext, text);
+        pintar(glifos.getOutline(x, y), color, borde);
+        mGraphics.setTransform(antes);
+    }
+
+    @Override
+    public void drawTextOnArc(String text, float left, float top, float right, float bottom,
+                              float startAngle, float sweepAngle, float hOffset, float vOffset,
+                              Fuente fuente, float size, int color, boolean borde) {
+        // Canvas.drawTextOnPath lays each glyph on the path, rotated to follow its tangent.
+        // The face only uses circles, so the arc length is just the radius times the angle.
+        double cx = (left + right) / 2.0;
+        double cy = (top + bottom) / 2.0;
+        double radio = ((right - left) + (bottom - top)) / 4.0;
+        double sentido = Math.signum(sweepAngle);
+        double largo = radio * Math.toRadians(Math.abs(sweepAngle));
+
+        Font font = fuente(fuente, size);
+        GlyphVector glifos = font.createGlyphVector(mFontContext, text);
+        AffineTransform antes = mGraphics.getTransform();
+        for (int i = 0; i < glifos.getNumGlyphs(); i++) {
+            double x = glifos.getGlyphPosition(i).getX();
+            double ancho = glifos.getGlyphMetrics(i).getAdvance();
+            double distancia = hOffset + x + ancho / 2;
+            if (distancia < 0 || distancia > largo) {
+                continue;
+            }
+            double angulo = Math.toRadians(startAngle) + sentido * distancia / radio;
+            // tangent in the direction the arc is drawn, and its normal to the right of it
+            double tx = -Math.sin(angulo) * sentido;
+            double ty = Math.cos(angulo) * sentido;
+            double px = cx + radio * Math.cos(angulo) - ty * vOffset;
+            double py = cy + radio * Math.sin(angulo) + tx * vOffset;
+
+            mGraphics.setTransform(antes);
+            mGraphics.translate(px, py);
+            mGraphics.rotate(Math.atan2(ty, tx));
+            Shape glifo = glifos.getGlyphOutline(i, (float) (-x - ancho / 2), 0);
+            pintar(glifo, color, borde);
+        }
+        mGraphics.setTransform(antes);
+    }
+
+    private void pintar(Shape forma, int color, boolean borde) {
+        mGraphics.setColor(new Color(color, true));
+        if (borde) {
+            Stroke antes = mGraphics.getStroke();
+            mGraphics.setStroke(BORDE);
+            mGraphics.draw(forma);
+            mGraphics.setStroke(antes);
+        } else {
+            mGraphics.fill(forma);
+        }
+    }
+
+    private Font fuente(Fuente fuente, float size) {
+        if (fuente == Fuente.SERIF) {
+            if (mSerif.getSize2D() != size) {
+                mSerif = mSerif.deriveFont(size);
+            }
+            return mSerif;
+        }
+        if (mSansSerif.getSize2D() != size) {
+            mSansSerif = mSansSerif.deriveFont(size);
+        }
+        return mSansSerif;
+    }
+}
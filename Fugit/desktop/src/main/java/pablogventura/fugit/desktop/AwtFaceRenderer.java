@@ -0,0 +1,126 @@
+package pablogventura.fugit.desktop;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Calendar;
+
+import pablogventura.fugit.face.FaceConfig;
+import pablogventura.fugit.face.FaceLayout;
+import pablogventura.fugit.face.FacePainter;
+
+/**
+ * Desktop twin of the Android FaceRenderer: the same two cached layers, rebuilt only when the
+ * minute, the config or the time zone changes, measured for the OLED budget once per build and
+ * blitted on every frame.
+ */
+public class AwtFaceRenderer {
+    private final FacePainter mPainter;
+    private final AwtFaceGraphics mGraphics;
+
+    private final BufferedImage mCapaCielo;
+    private final BufferedImage mCapaTexto;
+    private final Graphics2D mGraphicsCielo;
+    private final Graphics2D mGraphicsTexto;
+    private final int[] mPixelesCielo = new int[FaceLayout.TAMANO * FaceLayout.TAMANO];
+    private final int[] mPixelesTexto = new int[FaceLayout.TAMANO * FaceLayout.TAMANO];
+
+    private int mCapasConstruidas;
+    private int mRepintados;
+
+    public AwtFaceRenderer() {
+        this(FaceLayout.conDensidad(FaceLayout.DENSIDAD_MOTO_360));
+    }
+
+    public AwtFaceRenderer(FaceLayout layout) {
+        mPainter = new FacePainter(layout);
+        mGraphics = new AwtFaceGraphics();
+        mCapaCielo = new BufferedImage(FaceLayout.TAMANO, FaceLayout.TAMANO, BufferedImage.TYPE_INT_ARGB_PRE);
+        mCapaTexto = new BufferedImage(FaceLayout.TAMANO, FaceLayout.TAMANO, BufferedImage.TYPE_INT_ARGB_PRE);
+        mGraphicsCielo = mCapaCielo.createGraphics();
+        mGraphicsTexto = mCapaTexto.createGraphics();
+    }
+
+    public FacePainter getPainter() {
+        return mPainter;
+    }
+
+    public void setConfig(FaceConfig config) {
+        mPainter.setConfig(config);
+    }
+
+    /**
+     * How many times the layers were rebuilt since this renderer was created.
+     */
+    public int getCapasConstruidas() {
+        return mCapasConstruidas;
+    }
+
+    /**
+     * How many times the last build was painted again to fit in the OLED budget, at most
+     * {@link FacePainter#MAX_REPINTADOS}.
+     */
+    public int getRepintados() {
+        return mRepintados;
+    }
+
+    /**
+     * How many sky gradients were created since this renderer was created, counting the ones
+     * of repaints that never reached the screen.
+     */
+    public int getGradientes() {
+        return mGraphics.getGradientes();
+    }
+
+    /**
+     * Draws the face for {@code ahora} at face scale, see {@link FaceLayout#TAMANO}.
+     */
+    public void draw(Graphics2D g, Calendar ahora) {
+        if (mPainter.necesitaCapas(ahora)) {
+            construirCapas(ahora);
+        }
+        g.drawImage(mCapaCielo, 0, 0, null);
+        g.drawImage(mCapaTexto, 0, 0, null);
+    }
+
+    /**
+     * Paints the whole face straight on {@code g}, without the layers. This is what every frame
+     * cost before the layers existed.
+     */
+    public void drawSinCapas(Graphics2D g, Calendar ahora) {
+        mGraphics.setGraphics(g);
+        mPainter.pintarCielo(mGraphics, ahora);
+        mPainter.pintarTexto(mGraphics, ahora);
+    }
+
+    private void construirCapas(Calendar ahora) {
+        // cada pintada se mide, asi lo ultimo medido es lo que queda en las capas
+        pintarCapas(ahora);
+        mRepintados = 0;
+        while (medirCapas() && mRepintados < FacePainter.MAX_REPINTADOS) {
+            pintarCapas(ahora);
+            mRepintados++;
+        }
+        mPainter.marcarCapas(ahora);
+        mCapasConstruidas++;
+    }
+
+    private void pintarCapas(Calendar ahora) {
+        mGraphicsTexto.setComposite(AlphaComposite.Clear);
+        mGraphicsTexto.fillRect(0, 0, FaceLayout.TAMANO, FaceLayout.TAMANO);
+        mGraphicsTexto.setComposite(AlphaComposite.SrcOver);
+
+        mGraphics.setGraphics(mGraphicsCielo);
+        mPainter.pintarCielo(mGraphics, ahora);
+        mGraphics.setGraphics(mGraphicsTexto);
+        mPainter.pintarTexto(mGraphics, ahora);
+    }
+
+    private boolean medirCapas() {
+        int lado = FaceLayout.TAMANO;
+        // getRGB da ARGB sin premultiplicar, como Bitmap.getPixels
+        mCapaCielo.getRGB(0, 0, lado, lado, mPixelesCielo, 0, lado);
+        mCapaTexto.getRGB(0, 0, lado, lado, mPixelesTexto, 0, lado);
+        return mPainter.medirCapas(mPixelesCielo, mPixelesTexto);
+    }
+}
@@ -0,0 +1,43 @@
+package pablogventura.fugit.desktop;
+
+import pablogventura.fugit.face.CampoEstrellas;
+import pablogventura.fugit.face.FaceGraphics;
+
+/**
+ * {@link FaceGraphics} that draws nothing, so the simulator only pays for the face's own logic.
+ */
+public class NullFaceGraphics implements FaceGraphics {
+    @Override
+    public void fillRect(float left, float top, float right, float bottom, int color) {
+    }
+
+    @Override
+    public void fillGradient(float left, float top, float right, float bottom,
+                             float y0, int color0, float y1, int color1) {
+    }
+
+    @Override
+    public void drawSprite(Sprite sprite, float x, float y, float degrees, float px, float py,
+                           boolean interpolar) {
+    }
+
+    @Override
+    public void drawStarfield(CampoEstrellas campo, float cx, float cy, float degrees) {
+    }
+
+    @Override
+    public float measureText(String text, Fuente fuente, float size) {
+        return 0;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, float degrees, float px, float py,
+                         Fuente fuente, float size, int color, boolean borde) {
+    }
+
+    @Override
+    public void drawTextOnArc(String text, float left, float top, float right, float bottom,
+                              float startAngle, float sweepAngle, float hOffset, float vOffset,
+                              Fuente fuente, float size, int color, boolean borde) {
+    }
+}
@@ -0,0 +1,172 @@
+package pablogventura.fugit.desktop;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import pablogventura.fugit.face.CampoEstrellas;
+import pablogventura.fugit.face.FaceConfig;
+import pablogventura.fugit.face.FaceGraphics;
+import pablogventura.fugit.face.FaceLayout;
+
+/**
+ * Renders a simulated day of frames on the desktop backend and reports frames per second and
+ * bytes allocated per frame, with and without the cached layers, how long a night's star
+ * field takes to generate and render and what a sun or moon draw costs.
+ * <p>
+ * Usage: RenderBenchmark [frames] [out.png]. The frames are spread evenly over one day; with an
+ * out.png the last frame is saved so it can be checked by eye.
+ */
+public class RenderBenchmark {
+    private static final int FRAMES_DEFAULT = 20000;
+    private static final int WARMUP_FRAMES = 2000;
+    private static final double PRESUPUESTO_FRAME_MS = 1000.0 / 60;
+
+    public static void main(String[] args) throws IOException {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : FRAMES_DEFAULT;
+
+        AwtFaceRenderer renderer = new AwtFaceRenderer();
+        BufferedImage frame = new BufferedImage(FaceLayout.TAMANO, FaceLayout.TAMANO, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = frame.createGraphics();
+        Calendar ahora = Calendar.getInstance(TimeZone.getTimeZone("America/Argentina/Cordoba"));
+
+        correr(renderer, g, ahora, WARMUP_FRAMES, true);
+        correr(renderer, g, ahora, WARMUP_FRAMES / 10, false);
+
+        int antes = renderer.getCapasConstruidas();
+        Resultado conCapas = correr(renderer, g, ahora, frames, true);
+        int capas = renderer.getCapasConstruidas() - antes;
+        Resultado sinCapas = correr(renderer, g, ahora, Math.max(1, frames / 10), false);
+
+        System.out.println(String.format(Locale.US, "%d frames over one day, %d layer rebuilds", frames, capas));
+        System.out.println("cached layers: " + conCapas);
+        System.out.println("no layers:     " + sinCapas);
+
+        System.out.println("star field:    " + estrellas());
+        System.out.println("sun, smooth:   " + astros(true));
+        System.out.println("sun, hard:     " + astros(false));
+
+        if (args.length > 1) {
+            ImageIO.write(frame, "png", new File(args[1]));
+        }
+    }
+
+    /**
+     * Draws {@code frames} frames spread over the day of {@code ahora}.
+     */
+    static Resultado correr(AwtFaceRenderer renderer, Graphics2D g, Calendar ahora, int frames, boolean conCapas) {
+        ahora.set(2017, Calendar.OCTOBER, 25, 0, 0, 0);
+        long inicio = ahora.getTimeInMillis();
+        long paso = TimeUnit.DAYS.toMillis(1) / frames;
+
+        int gradientes = renderer.getGradientes();
+        long bytes = bytesAsignados();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            ahora.setTimeInMillis(inicio + i * paso);
+            if (conCapas) {
+                renderer.draw(g, ahora);
+            } else {
+                renderer.drawSinCapas(g, ahora);
+            }
+        }
+        long nanos = System.nanoTime() - t0;
+        bytes = bytes < 0 ? -1 : bytesAsignados() - bytes;
+        return new Resultado(frames, nanos, bytes, renderer.getGradientes() - gradientes);
+    }
+
+    /**
+     * Generates and renders a year of star fields, one per night, at the biggest size the
+     * painter asks for (turning stars seen from a pole), and checks a night refresh fits in a
+     * frame.
+     */
+    static String estrellas() {
+        AwtFaceGraphics graphics = new AwtFaceGraphics();
+        int lado = 2 * (int) Math.ceil(Math.hypot(FaceLayout.TAMANO / 2, FaceLayout.TAMANO));
+        int noches = 365;
+        long peor = 0;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < noches; i++) {
+            long t = System.nanoTime();
+            long semilla = CampoEstrellas.semilla(20170101 + i, FaceConfig.LATITUD_DEFAULT, FaceConfig.LONGITUD_DEFAULT);
+            graphics.renderizarEstrellas(CampoEstrellas.generar(semilla, lado));
+            peor = Math.max(peor, System.nanoTime() - t);
+        }
+        double promedio = (System.nanoTime() - t0) / 1e6 / noches;
+        return String.format(Locale.US, "%d nights at %dx%d, %.3f ms/night, worst %.3f ms, %s the %.1f ms frame budget",
+                noches, lado, lado, promedio, peor / 1e6, peor / 1e6 <= PRESUPUESTO_FRAME_MS ? "within" : "OVER",
+                PRESUPUESTO_FRAME_MS);
+    }
+
+    /**
+     * Draws the sun along a 12 hour day, once per second of each minute like frames painted
+     * without the layers would, and reports how often a draw had to turn the sprite. The sun
+     * turns 300° in that time, so the atlas renders a step every two or three minutes and the
+     * rest are plain blits.
+     */
+    static String astros(boolean interpolar) {
+        AwtFaceGraphics graphics = new AwtFaceGraphics();
+        BufferedImage capa = new BufferedImage(FaceLayout.TAMANO, FaceLayout.TAMANO, BufferedImage.TYPE_INT_ARGB_PRE);
+        graphics.setGraphics(capa.createGraphics());
+        int minutos = 12 * 60;
+        int porMinuto = 60;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < minutos; i++) {
+            float grados = FaceLayout.angulo((double) i / minutos);
+            for (int f = 0; f < porMinuto; f++) {
+                graphics.drawSprite(FaceGraphics.Sprite.SOL, FaceLayout.ASTRO_X, FaceLayout.ASTRO_Y,
+                        grados, FaceLayout.PIVOTE_X, FaceLayout.PIVOTE_Y, interpolar);
+            }
+        }
+        int draws = minutos * porMinuto;
+        return String.format(Locale.US, "%.1f us/draw over %d draws, %d turned",
+                (System.nanoTime() - t0) / 1e3 / draws, draws, graphics.getCeldasRotadas());
+    }
+
+    /**
+     * Bytes allocated so far by this thread, or -1 if the JVM can't tell.
+     */
+    static long bytesAsignados() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+            if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+                return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    static class Resultado {
+        final int mFrames;
+        final long mNanos;
+        final long mBytes;
+        /**
+         * Sky gradients created, i.e. gradient shader rebuilds.
+         */
+        final int mGradientes;
+
+        Resultado(int frames, long nanos, long bytes, int gradientes) {
+            mFrames = frames;
+            mNanos = nanos;
+            mBytes = bytes;
+            mGradientes = gradientes;
+        }
+
+        @Override
+        public String toString() {
+            double fps = mFrames / (mNanos / 1e9);
+            String porFrame = mBytes < 0 ? "n/a" : String.format(Locale.US, "%.0f B", (double) mBytes / mFrames);
+            return String.format(Locale.US, "%10.1f fps, %8.3f ms/frame, %s allocated/frame, %d sky gradients",
+                    fps, mNanos / 1e6 / mFrames, porFrame, mGradientes);
+        }
+    }
+}
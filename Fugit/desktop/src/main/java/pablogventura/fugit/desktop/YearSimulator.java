@@ -0,0 +1,247 @@
+package pablogventura.fugit.desktop;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import pablogventura.fugit.face.FaceConfig;
+import pablogventura.fugit.face.FaceGraphics;
+import pablogventura.fugit.face.FaceLayout;
+import pablogventura.fugit.face.FacePainter;
+import pablogventura.fugit.face.FaceTicker;
+import pablogventura.fugit.face.SimulatedFaceClock;
+import pablogventura.fugit.face.Situacion;
+
+/**
+ * Runs a year of watch face wakeups on a {@link SimulatedFaceClock}, as fast as the JVM can,
+ * for a few places picked to hit the hard cases: daylight saving transitions on both
+ * hemispheres, polar days and nights, and a traveller whose time zone changes every few days.
+ * Midnight rollovers happen every day in all of them.
+ * <p>
+ * Each wakeup starts like the watch's, with {@link FaceTicker#despertar}, then repaints the
+ * layers if the minute changed and sleeps until the next tick. It reports CPU time, wakeups,
+ * allocations and every frame where the sun or moon fraction falls outside [0,1] or the
+ * painter throws.
+ * <p>
+ * Usage: YearSimulator [seconds between wakeups] [--awt]. The default is 60, one wakeup per
+ * minute like ambient mode; 1 is interactive mode. By default nothing is really drawn so only
+ * the face's logic is measured; --awt draws every frame with the desktop backend.
+ */
+public class YearSimulator {
+    private static final long PERIODO_DEFAULT_S = 60;
+    private static final int DIAS = 365;
+    private static final int ERRORES_LISTADOS = 5;
+
+    /**
+     * The traveller changes time zone this often, staying at the config's place.
+     */
+    private static final long ESTADIA_VIAJERO_MS = TimeUnit.DAYS.toMillis(9);
+    private static final String[] ZONAS_VIAJERO = {
+            "America/Argentina/Cordoba", "Europe/Madrid", "Asia/Tokyo", "America/Los_Angeles",
+            "Asia/Kolkata", "Pacific/Chatham",
+    };
+
+    private final long mPeriodo;
+    private final boolean mAwt;
+
+    YearSimulator(long periodo, boolean awt) {
+        mPeriodo = periodo;
+        mAwt = awt;
+    }
+
+    public static void main(String[] args) {
+        long segundos = PERIODO_DEFAULT_S;
+        boolean awt = false;
+        for (String arg : args) {
+            if ("--awt".equals(arg)) {
+                awt = true;
+            } else {
+                segundos = Long.parseLong(arg);
+            }
+        }
+        YearSimulator simulador = new YearSimulator(TimeUnit.SECONDS.toMillis(segundos), awt);
+        System.out.println(String.format(Locale.US, "%d days, one wakeup every %d s, %s",
+                DIAS, segundos, awt ? "drawn with AWT" : "not drawn"));
+
+        int fuera = 0;
+        fuera += simulador.correr(new Escenario("Cordoba", "America/Argentina/Cordoba",
+                FaceConfig.LATITUD_DEFAULT, FaceConfig.LONGITUD_DEFAULT)).imprimir();
+        fuera += simulador.correr(new Escenario("Berlin", "Europe/Berlin", 52.52, 13.405)).imprimir();
+        fuera += simulador.correr(new Escenario("Sydney", "Australia/Sydney", -33.87, 151.21)).imprimir();
+        fuera += simulador.correr(new Escenario("Tromso", "Europe/Oslo", 69.65, 18.96)).imprimir();
+        fuera += simulador.correr(new Escenario("McMurdo", "Antarctica/McMurdo", -77.85, 166.67)).imprimir();
+        fuera += simulador.correr(new Escenario("Traveller", null,
+                FaceConfig.LATITUD_DEFAULT, FaceConfig.LONGITUD_DEFAULT)).imprimir();
+        System.out.println(fuera == 0 ? "all fractions in [0,1]" : fuera + " bad frames");
+        if (fuera > 0) {
+            System.exit(1);
+        }
+    }
+
+    Resultado correr(Escenario escenario) {
+        TimeZone zona = TimeZone.getTimeZone(escenario.zona(0));
+        Calendar inicio = Calendar.getInstance(zona);
+        inicio.clear();
+        inicio.set(2017, Calendar.JANUARY, 1);
+        long desde = inicio.getTimeInMillis();
+        long hasta = desde + TimeUnit.DAYS.toMillis(DIAS);
+
+        SimulatedFaceClock reloj = new SimulatedFaceClock(desde, zona);
+        FaceTicker ticker = new FaceTicker(reloj);
+        FaceConfig config = new FaceConfig.Builder()
+                .setUbicacion(escenario.mLatitud, escenario.mLongitud)
+                .build();
+
+        FacePainter painter;
+        AwtFaceRenderer renderer = null;
+        Graphics2D frame = null;
+        FaceGraphics nulo = new NullFaceGraphics();
+        if (mAwt) {
+            renderer = new AwtFaceRenderer();
+            renderer.setConfig(config);
+            painter = renderer.getPainter();
+            frame = new BufferedImage(FaceLayout.TAMANO, FaceLayout.TAMANO, BufferedImage.TYPE_INT_ARGB_PRE)
+                    .createGraphics();
+        } else {
+            painter = new FacePainter(FaceLayout.conDensidad(FaceLayout.DENSIDAD_MOTO_360));
+            painter.setConfig(config);
+        }
+
+        Resultado resultado = new Resultado(escenario.mNombre);
+        int dia = -1;
+        int offset = zona.getOffset(desde);
+        ThreadMXBean hilo = ManagementFactory.getThreadMXBean();
+        long cpu = hilo.getCurrentThreadCpuTime();
+        long bytes = RenderBenchmark.bytesAsignados();
+        while (reloj.currentTimeMillis() < hasta) {
+            long t = reloj.currentTimeMillis();
+            String otraZona = escenario.zona(t - desde);
+            if (!otraZona.equals(reloj.getTimeZone().getID())) {
+                reloj.setTimeZone(TimeZone.getTimeZone(otraZona));
+            }
+
+            resultado.mDespertares++;
+            Calendar ahora = ticker.despertar(painter);
+            if (ticker.cambioZona()) {
+                resultado.mCambiosZona++;
+            }
+            boolean capas = painter.necesitaCapas(ahora);
+            try {
+                if (mAwt) {
+                    renderer.draw(frame, ahora);
+                } else if (capas) {
+                    painter.pintarCielo(nulo, ahora);
+                    painter.pintarTexto(nulo, ahora);
+                    painter.marcarCapas(ahora);
+                }
+                if (capas) {
+                    resultado.mCapas++;
+                    revisar(painter.getSituacion(), ahora, resultado);
+                }
+            } catch (RuntimeException e) {
+                resultado.error(ahora, e.toString());
+                painter.invalidateLayers();
+            }
+
+            if (ahora.get(Calendar.DAY_OF_YEAR) != dia) {
+                dia = ahora.get(Calendar.DAY_OF_YEAR);
+                resultado.mMedianoches++;
+            }
+            if (ahora.getTimeZone().getOffset(t) != offset) {
+                offset = ahora.getTimeZone().getOffset(t);
+                resultado.mSaltosHora++;
+            }
+            reloj.avanzar(ticker.demora(mPeriodo));
+        }
+        resultado.mCpuNanos = hilo.getCurrentThreadCpuTime() - cpu;
+        resultado.mBytes = bytes < 0 ? -1 : RenderBenchmark.bytesAsignados() - bytes;
+        return resultado;
+    }
+
+    private static void revisar(Situacion situacion, Calendar ahora, Resultado resultado) {
+        double porcentaje = situacion.getPorcentaje();
+        if (!(porcentaje >= 0 && porcentaje <= 1)) {
+            resultado.error(ahora, String.format(Locale.US, "%s fraction %.4f",
+                    situacion.esDeDia() ? "sun" : "moon", porcentaje));
+        }
+    }
+
+    /**
+     * A place and its time zone, or for the traveller a list of zones.
+     */
+    static class Escenario {
+        final String mNombre;
+        final String mZona;
+        final double mLatitud;
+        final double mLongitud;
+
+        Escenario(String nombre, String zona, double latitud, double longitud) {
+            mNombre = nombre;
+            mZona = zona;
+            mLatitud = latitud;
+            mLongitud = longitud;
+        }
+
+        /**
+         * Zone the watch is in {@code transcurrido} milliseconds into the year.
+         */
+        String zona(long transcurrido) {
+            if (mZona != null) {
+                return mZona;
+            }
+            return ZONAS_VIAJERO[(int) ((transcurrido / ESTADIA_VIAJERO_MS) % ZONAS_VIAJERO.length)];
+        }
+    }
+
+    static class Resultado {
+        final String mNombre;
+        long mDespertares;
+        int mCapas;
+        int mMedianoches;
+        int mSaltosHora;
+        int mCambiosZona;
+        long mCpuNanos;
+        long mBytes;
+        int mErrores;
+        final List<String> mPrimeros = new ArrayList<>();
+
+        Resultado(String nombre) {
+            mNombre = nombre;
+        }
+
+        void error(Calendar ahora, String que) {
+            mErrores++;
+            if (mPrimeros.size() < ERRORES_LISTADOS) {
+                SimpleDateFormat formato = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss zzz", Locale.US);
+                formato.setTimeZone(ahora.getTimeZone());
+                mPrimeros.add(formato.format(new Date(ahora.getTimeInMillis())) + " " + que);
+            }
+        }
+
+        /**
+         * Prints the result and returns how many frames went wrong.
+         */
+        int imprimir() {
+            String bytes = mBytes < 0 ? "n/a" : String.format(Locale.US, "%.1f MB (%.0f B/wakeup)",
+                    mBytes / 1e6, (double) mBytes / mDespertares);
+            System.out.println(String.format(Locale.US,
+                    "%-10s %8d wakeups, %7d layer rebuilds, cpu %7.0f ms (%5.1f us/wakeup), %s allocated,"
+                            + " %d midnights, %d offset changes, %d zone changes, %d bad frames",
+                    mNombre, mDespertares, mCapas, mCpuNanos / 1e6, mCpuNanos / 1e3 / mDespertares, bytes,
+                    mMedianoches, mSaltosHora, mCambiosZona, mErrores));
+            for (String error : mPrimeros) {
+                System.out.println("    " + error);
+            }
+            return mErrores;
+        }
+    }
+}
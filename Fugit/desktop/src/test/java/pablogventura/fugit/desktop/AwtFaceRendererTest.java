@@ -0,0 +1,94 @@
+package pablogventura.fugit.desktop;
+
+import org.junit.Test;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import pablogventura.fugit.face.FaceConfig;
+import pablogventura.fugit.face.FaceLayout;
+import pablogventura.fugit.face.FacePainter;
+
+import static org.junit.Assert.*;
+
+public class AwtFaceRendererTest {
+    /**
+     * Renders a summer day in Cordoba every few minutes and returns the most lit build.
+     */
+    private static double masEncendido(FaceConfig config) {
+        AwtFaceRenderer renderer = new AwtFaceRenderer();
+        renderer.setConfig(config);
+        Graphics2D g = new BufferedImage(FaceLayout.TAMANO, FaceLayout.TAMANO, BufferedImage.TYPE_INT_ARGB_PRE)
+                .createGraphics();
+        Calendar ahora = Calendar.getInstance(TimeZone.getTimeZone("America/Argentina/Cordoba"));
+        ahora.clear();
+        ahora.set(2017, Calendar.JANUARY, 1);
+        double maximo = 0;
+        for (int minuto = 0; minuto < 24 * 60; minuto += 5) {
+            renderer.draw(g, ahora);
+            maximo = Math.max(maximo, renderer.getPainter().getEncendido());
+            ahora.add(Calendar.MINUTE, 5);
+        }
+        return maximo;
+    }
+
+    @Test
+    public void elDiaSinPresupuestoEnciendeMucho() throws Exception {
+        assertTrue(masEncendido(new FaceConfig()) > 0.5);
+    }
+
+    @Test
+    public void seQuedaDentroDelPresupuesto() throws Exception {
+        for (float presupuesto : new float[]{0.3f, 0.15f, 0.08f}) {
+            FaceConfig config = new FaceConfig.Builder().setPresupuestoOled(presupuesto).build();
+            double maximo = masEncendido(config);
+            assertTrue("budget " + presupuesto + ", lit " + maximo, maximo <= presupuesto);
+        }
+    }
+
+    @Test
+    public void loMedidoEsLoQueQuedaEnPantalla() throws Exception {
+        // a summer noon from scratch with a low budget takes every repaint there is
+        AwtFaceRenderer renderer = new AwtFaceRenderer();
+        renderer.setConfig(new FaceConfig.Builder().setPresupuestoOled(0.08f).build());
+        BufferedImage frame = new BufferedImage(FaceLayout.TAMANO, FaceLayout.TAMANO, BufferedImage.TYPE_INT_ARGB_PRE);
+        Calendar ahora = Calendar.getInstance(TimeZone.getTimeZone("America/Argentina/Cordoba"));
+        ahora.clear();
+        ahora.set(2017, Calendar.JANUARY, 1, 13, 0);
+        renderer.draw(frame.createGraphics(), ahora);
+        assertEquals(FacePainter.MAX_REPINTADOS, renderer.getRepintados());
+
+        FacePainter medidor = new FacePainter(FaceLayout.conDensidad(FaceLayout.DENSIDAD_MOTO_360));
+        int lado = FaceLayout.TAMANO;
+        medidor.medirCapas(frame.getRGB(0, 0, lado, lado, null, 0, lado), new int[lado * lado]);
+        assertEquals(medidor.getEncendido(), renderer.getPainter().getEncendido(), 1e-4);
+        assertTrue(renderer.getPainter().getEncendido() <= 0.08);
+    }
+
+    @Test
+    public void elCieloCambiaPocasVecesPorHora() throws Exception {
+        // cada gradiente nuevo cuenta, tambien los de repintadas que no llegaron a la pantalla
+        for (float presupuesto : new float[]{FaceConfig.SIN_PRESUPUESTO, 0.3f, 0.15f, 0.08f}) {
+            AwtFaceRenderer renderer = new AwtFaceRenderer();
+            renderer.setConfig(new FaceConfig.Builder().setPresupuestoOled(presupuesto).build());
+            Graphics2D g = new BufferedImage(FaceLayout.TAMANO, FaceLayout.TAMANO, BufferedImage.TYPE_INT_ARGB_PRE)
+                    .createGraphics();
+            Calendar ahora = Calendar.getInstance(TimeZone.getTimeZone("America/Argentina/Cordoba"));
+            ahora.clear();
+            ahora.set(2017, Calendar.JANUARY, 1);
+            renderer.draw(g, ahora);
+            for (int hora = 0; hora < 24; hora++) {
+                int antes = renderer.getGradientes();
+                for (int minuto = 0; minuto < 60; minuto++) {
+                    ahora.add(Calendar.MINUTE, 1);
+                    renderer.draw(g, ahora);
+                }
+                int gradientes = renderer.getGradientes() - antes;
+                assertTrue("budget " + presupuesto + ", " + hora + "h: " + gradientes + " gradients",
+                        gradientes <= 6);
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package pablogventura.fugit.face;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.graphics.Typeface;
+import android.util.DisplayMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link FaceGraphics} on an Android {@link Canvas}. Shaders, arc paths and turned sprites are
+ * kept between calls, so repainting a layer with the same gradient and arcs allocates nothing
+ * and the sun and the moon are only resampled once per degree.
+ */
+public class CanvasFaceGraphics implements FaceGraphics {
+    private final Bitmap[] mSprites = new Bitmap[Sprite.values().length];
+
+    private final Paint mFillPaint;
+    private final Paint mSpritePaint;
+    private final Paint mSpriteDuroPaint;
+    private final Paint mTextPaint;
+
+    private LinearGradient mGradient;
+    private float mGradientY0;
+    private float mGradientY1;
+    private int mGradientColor0;
+    private int mGradientColor1;
+
+    private final List<Arco> mArcos = new ArrayList<>();
+
+    /**
+     * Tile the current star field is rendered into. The bitmap is reused from night to night
+     * and only reallocated if the field changes size.
+     */
+    private Bitmap mTileEstrellas;
+    private CampoEstrellas mCampoEstrellas;
+    private final Paint mEstrellaPaint;
+    private final Matrix mMatrizEstrellas = new Matrix();
+
+    /**
+     * The sun and the moon already turned, one row per sprite, see {@link AtlasRotaciones}.
+     */
+    private final AtlasRotaciones mAtlas;
+    private final Bitmap mBitmapAtlas;
+    private final Canvas mCanvasAtlas;
+    private final Paint mBorrarPaint;
+    private boolean mAtlasInterpolado = true;
+    private final Rect mCelda = new Rect();
+    private final RectF mDestino = new RectF();
+
+    private Canvas mCanvas;
+
+    public CanvasFaceGraphics(Resources resources) {
+        // en unidades de la cara como en el moto 360, no en pixeles de esta pantalla
+        BitmapFactory.Options opciones = new BitmapFactory.Options();
+        opciones.inTargetDensity = Math.round(DisplayMetrics.DENSITY_DEFAULT * FaceLayout.DENSIDAD_MOTO_360);
+        mSprites[Sprite.SOL.ordinal()] = BitmapFactory.decodeResource(resources, R.drawable.sol, opciones);
+        mSprites[Sprite.LUNA.ordinal()] = BitmapFactory.decodeResource(resources, R.drawable.luna, opciones);
+
+        int ancho = 0;
+        int alto = 0;
+        for (Bitmap sprite : mSprites) {
+            ancho = Math.max(ancho, sprite.getWidth());
+            alto = Math.max(alto, sprite.getHeight());
+        }
+        mAtlas = new AtlasRotaciones(ancho, alto);
+        int lado = mAtlas.getLado();
+        mBitmapAtlas = Bitmap.createBitmap(AtlasRotaciones.CELDAS * lado, mSprites.length * lado,
+                Bitmap.Config.ARGB_8888);
+        mCanvasAtlas = new Canvas(mBitmapAtlas);
+        mBorrarPaint = new Paint();
+        mBorrarPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.CLEAR));
+
+        mFillPaint = new Paint();
+        mSpritePaint = new Paint();
+        mSpritePaint.setAntiAlias(true);
+        mSpritePaint.setFilterBitmap(true);
+        mSpriteDuroPaint = new Paint();
+        mEstrellaPaint = new Paint();
+        mEstrellaPaint.setAntiAlias(true);
+
+        mTextPaint = new Paint();
+        mTextPaint.setAntiAlias(true);
+        mTextPaint.setStrokeJoin(Paint.Join.ROUND);
+        mTextPaint.setStrokeMiter(10);
+        mTextPaint.setStrokeWidth(3);
+    }
+
+    /**
+     * Sets the canvas the next calls draw on.
+     */
+    public void setCanvas(Canvas canvas) {
+        mCanvas = canvas;
+    }
+
+    @Override
+    public void fillRect(float left, float top, float right, float bottom, int color) {
+        mFillPaint.setShader(null);
+        mFillPaint.setColor(color);
+        mCanvas.drawRect(left, top, right, bottom, mFillPaint);
+    }
+
+    @Override
+    public void fillGradient(float left, float top, float right, float bottom,
+                             float y0, int color0, float y1, int color1) {
+        if (mGradient == null || y0 != mGradientY0 || y1 != mGradientY1
+                || color0 != mGradientColor0 || color1 != mGradientColor1) {
+            mGradient = new LinearGradient(0, y0, 0, y1, color0, color1, Shader.TileMode.CLAMP);
+            mGradientY0 = y0;
+            mGradientY1 = y1;
+            mGradientColor0 = color0;
+            mGradientColor1 = color1;
+        }
+        mFillPaint.setShader(mGradient);
+        mCanvas.drawRect(left, top, right, bottom, mFillPaint);
+    }
+
+    @Override
+    public void drawSprite(Sprite sprite, float x, float y, float degrees, float px, float py,
+                           boolean interpolar) {
+        Bitmap bmp = mSprites[sprite.ordinal()];
+        Paint paint = interpolar ? mSpritePaint : mSpriteDuroPaint;
+        if (degrees == 0) {
+            mCanvas.drawBitmap(bmp, x, y, paint);
+            return;
+        }
+        if (interpolar != mAtlasInterpolado) {
+            mAtlas.vaciar();
+            mAtlasInterpolado = interpolar;
+        }
+        int paso = AtlasRotaciones.paso(degrees);
+        int celda = mAtlas.buscar(sprite, paso);
+        celda(sprite, celda < 0 ? -celda - 1 : celda);
+        if (celda < 0) {
+            rotar(bmp, paso, paint);
+        }
+        int lado = mAtlas.getLado();
+
+        float left = AtlasRotaciones.centroX(x + bmp.getWidth() / 2f, y + bmp.getHeight() / 2f, paso, px, py)
+                - lado / 2f;
+        float top = AtlasRotaciones.centroY(x + bmp.getWidth() / 2f, y + bmp.getHeight() / 2f, paso, px, py)
+                - lado / 2f;
+        // en pixeles enteros la copia es directa, sin volver a filtrar
+        left = Math.round(left);
+        top = Math.round(top);
+        mDestino.set(left, top, left + lado, top + lado);
+        mCanvas.drawBitmap(mBitmapAtlas, mCelda, mDestino, mSpriteDuroPaint);
+    }
+
+    private void celda(Sprite sprite, int celda) {
+        int lado = mAtlas.getLado();
+        mCelda.set(celda * lado, sprite.ordinal() * lado, (celda + 1) * lado, (sprite.ordinal() + 1) * lado);
+    }
+
+    /**
+     * Renders {@code bmp} turned {@code paso} steps into {@link #mCelda} of the atlas.
+     */
+    private void rotar(Bitmap bmp, int paso, Paint paint) {
+        mCanvasAtlas.save();
+        mCanvasAtlas.clipRect(mCelda);
+        mCanvasAtlas.drawRect(mCelda, mBorrarPaint);
+        mCanvasAtlas.rotate(AtlasRotaciones.grados(paso), mCelda.exactCenterX(), mCelda.exactCenterY());
+        mCanvasAtlas.drawBitmap(bmp, mCelda.exactCenterX() - bmp.getWidth() / 2f,
+                mCelda.exactCenterY() - bmp.getHeight() / 2f, paint);
+        mCanvasAtlas.restore();
+    }
+
+    @Override
+    public void drawStarfield(CampoEstrellas campo, float cx, float cy, float degrees) {
+        if (campo != mCampoEstrellas) {
+            renderizarEstrellas(campo);
+        }
+        float mitad = campo.getLado() / 2f;
+        if (degrees == 0) {
+            mCanvas.drawBitmap(mTileEstrellas, cx - mitad, cy - mitad, mSpritePaint);
+            return;
+        }
+        mMatrizEstrellas.setTranslate(-mitad, -mitad);
+        mMatrizEstrellas.postRotate(degrees);
+        mMatrizEstrellas.postTranslate(cx, cy);
+        mCanvas.drawBitmap(mTileEstrellas, mMatrizEstrellas, mSpritePaint);
+    }
+
+    private void renderizarEstrellas(CampoEstrellas campo) {
+        int lado = campo.getLado();
+        if (mTileEstrellas == null || mTileEstrellas.getWidth() != lado) {
+            if (mTileEstrellas != null) {
+                mTileEstrellas.recycle();
+            }
+            mTileEstrellas = Bitmap.createBitmap(lado, lado, Bitmap.Config.ARGB_8888);
+        } else {
+            mTileEstrellas.eraseColor(Color.TRANSPARENT);
+        }
+        Canvas canvas = new Canvas(mTileEstrellas);
+        for (int i = 0; i < campo.getCantidad(); i++) {
+            mEstrellaPaint.setColor(campo.getColor(i));
+            canvas.drawCircle(campo.getX(i), campo.getY(i), campo.getRadio(i), mEstrellaPaint);
+        }
+        mCampoEstrellas = campo;
+    }
+
+    @Override
+    public float measureText(String text, Fuente fuente, float size) {
+        prepararTexto(fuente, size, 0, false);
+        return mTextPaint.measureText(text);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, float degrees, float px, float py,
+                         Fuente fuente, float size, int color, boolean borde) {
+        prepararTexto(fuente, size, color, borde);
+        mCanvas.save();
+        mCanvas.rotate(degrees, px, py);
+        mCanvas.drawText(text, x, y, mTextPaint);
+        mCanvas.restore();
+    }
+
+    @Override
+    public void drawTextOnArc(String text, float left, float top, float right, float bottom,
+                              float startAngle, float sweepAngle, float hOffset, float vOffset,
+                              Fuente fuente, float size, int color, boolean borde) {
+        prepararTexto(fuente, size, color, borde);
+        Path arco = arco(left, top, right, bottom, startAngle, sweepAngle);
+        mCanvas.drawTextOnPath(text, arco, hOffset, vOffset, mTextPaint);
+    }
+
+    private void prepararTexto(Fuente fuente, float size, int color, boolean borde) {
+        mTextPaint.setTypeface(fuente == Fuente.SERIF ? Typeface.SERIF : Typeface.SANS_SERIF);
+        mTextPaint.setTextSize(size);
+        mTextPaint.setColor(color);
+        mTextPaint.setStyle(borde ? Paint.Style.STROKE : Paint.Style.FILL);
+    }
+
+    private Path arco(float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+        for (int i = 0; i < mArcos.size(); i++) {
+            Arco arco = mArcos.get(i);
+            if (arco.es(left, top, right, bottom, startAngle, sweepAngle)) {
+                return arco.mPath;
+            }
+        }
+        Arco arco = new Arco(left, top, right, bottom, startAngle, sweepAngle);
+        mArcos.add(arco);
+        return arco.mPath;
+    }
+
+    /**
+     * An arc path and what it was built from.
+     */
+    private static class Arco {
+        final RectF mOval;
+        final float mStartAngle;
+        final float mSweepAngle;
+        final Path mPath = new Path();
+
+        Arco(float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+            mOval = new RectF(left, top, right, bottom);
+            mStartAngle = startAngle;
+            mSweepAngle = sweepAngle;
+            mPath.addArc(mOval, startAngle, sweepAngle);
+        }
+
+        boolean es(float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+            return mOval.left == left && mOval.top == top && mOval.right == right && mOval.bottom == bottom
+                    && mStartAngle == startAngle && mSweepAngle == sweepAngle;
+        }
+    }
+}
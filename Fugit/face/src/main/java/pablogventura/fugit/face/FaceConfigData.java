@@ -0,0 +1,65 @@
+package pablogventura.fugit.face;
+
+import android.net.Uri;
+
+import com.google.android.gms.wearable.DataMap;
+import com.google.android.gms.wearable.PutDataRequest;
+
+/**
+ * How a {@link FaceConfig} travels from the phone settings to the watch: a Wearable data item
+ * at {@link #PATH} with one {@link DataMap} entry per setting. The phone writes it whenever a
+ * face setting changes and the watch reads it when it starts and every time it changes.
+ */
+public class FaceConfigData {
+    public static final String PATH = "/fugit/config";
+
+    private static final String KEY_LATITUD = "latitud";
+    private static final String KEY_LONGITUD = "longitud";
+    private static final String KEY_ROTAR_ESTRELLAS = "rotar_estrellas";
+    private static final String KEY_COMPLICACIONES = "complicaciones";
+    private static final String KEY_INTERPOLAR_ASTROS = "interpolar_astros";
+    private static final String KEY_PRESUPUESTO_OLED = "presupuesto_oled";
+
+    private FaceConfigData() {
+    }
+
+    /**
+     * The data item on any node, the phone is the only one that writes it.
+     */
+    public static Uri uri() {
+        return new Uri.Builder().scheme(PutDataRequest.WEAR_URI_SCHEME).path(PATH).build();
+    }
+
+    public static void escribir(FaceConfig config, DataMap datos) {
+        datos.putDouble(KEY_LATITUD, config.getLatitud());
+        datos.putDouble(KEY_LONGITUD, config.getLongitud());
+        datos.putBoolean(KEY_ROTAR_ESTRELLAS, config.isRotarEstrellas());
+        datos.putInt(KEY_COMPLICACIONES, config.getComplicaciones());
+        datos.putBoolean(KEY_INTERPOLAR_ASTROS, config.isInterpolarAstros());
+        datos.putFloat(KEY_PRESUPUESTO_OLED, config.getPresupuestoOled());
+    }
+
+    /**
+     * Settings missing from {@code datos}, for example written by an older phone app, keep
+     * their default.
+     */
+    public static FaceConfig leer(DataMap datos) {
+        FaceConfig defaults = new FaceConfig();
+        int complicaciones = datos.getInt(KEY_COMPLICACIONES, defaults.getComplicaciones());
+        if (complicaciones < 0 || complicaciones > FaceConfig.MAX_COMPLICACIONES) {
+            complicaciones = defaults.getComplicaciones();
+        }
+        float presupuesto = datos.getFloat(KEY_PRESUPUESTO_OLED, defaults.getPresupuestoOled());
+        if (!(presupuesto > 0 && presupuesto <= FaceConfig.SIN_PRESUPUESTO)) {
+            presupuesto = defaults.getPresupuestoOled();
+        }
+        return new FaceConfig.Builder()
+                .setUbicacion(datos.getDouble(KEY_LATITUD, defaults.getLatitud()),
+                        datos.getDouble(KEY_LONGITUD, defaults.getLongitud()))
+                .setRotarEstrellas(datos.getBoolean(KEY_ROTAR_ESTRELLAS, defaults.isRotarEstrellas()))
+                .setComplicaciones(complicaciones)
+                .setInterpolarAstros(datos.getBoolean(KEY_INTERPOLAR_ASTROS, defaults.isInterpolarAstros()))
+                .setPresupuestoOled(presupuesto)
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package pablogventura.fugit.face;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import java.util.Calendar;
+
+/**
+ * Draws the Fugit face on an Android Canvas. Used by the watch face and by the preview in the
+ * phone settings.
+ * <p>
+ * {@link FacePainter} paints the sky and the text into two cached layers that are only rebuilt
+ * when the minute, the config or the time zone changes. The rest of the frames are two bitmap
+ * blits. With an OLED budget every paint of a build is measured, see
+ * {@link FacePainter#medirCapas}; without one nothing is.
+ */
+public class FaceRenderer {
+    private final FacePainter mPainter;
+    private final CanvasFaceGraphics mGraphics;
+    private final Paint mLayerPaint;
+
+    private Bitmap mCapaCielo;
+    private Bitmap mCapaTexto;
+    private Canvas mCanvasCielo;
+    private Canvas mCanvasTexto;
+    private int[] mPixelesCielo;
+    private int[] mPixelesTexto;
+
+    public FaceRenderer(Context context) {
+        Resources resources = context.getResources();
+        FaceLayout layout = new FaceLayout(
+                unidades(resources, R.dimen.hours_x_offset_round),
+                unidades(resources, R.dimen.hours_y_offset),
+                unidades(resources, R.dimen.minutes_x_offset_round),
+                unidades(resources, R.dimen.minutes_y_offset),
+                unidades(resources, R.dimen.digital_text_size_round),
+                unidades(resources, R.dimen.size_date));
+        mPainter = new FacePainter(layout);
+        mGraphics = new CanvasFaceGraphics(resources);
+        mLayerPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    }
+
+    /**
+     * The dimens are dp of the moto 360, but the layers are always in face units: on a phone
+     * getDimension alone would put the time off the layer.
+     */
+    private static float unidades(Resources resources, int id) {
+        return resources.getDimension(id) / resources.getDisplayMetrics().density * FaceLayout.DENSIDAD_MOTO_360;
+    }
+
+    public FacePainter getPainter() {
+        return mPainter;
+    }
+
+    public FaceConfig getConfig() {
+        return mPainter.getConfig();
+    }
+
+    /**
+     * Changes the config. The layers are only thrown away if it's really a different config.
+     */
+    public void setConfig(FaceConfig config) {
+        mPainter.setConfig(config);
+    }
+
+    /**
+     * Forces the layers to be rebuilt on the next {@link #draw}, for example after a time zone
+     * change.
+     */
+    public void invalidateLayers() {
+        mPainter.invalidateLayers();
+    }
+
+    /**
+     * Draws the face for {@code ahora} at face scale, see {@link FaceLayout#TAMANO}.
+     */
+    public void draw(Canvas canvas, Calendar ahora) {
+        if (mCapaCielo == null || mPainter.necesitaCapas(ahora)) {
+            construirCapas(ahora);
+        }
+        canvas.drawBitmap(mCapaCielo, 0, 0, mLayerPaint);
+        canvas.drawBitmap(mCapaTexto, 0, 0, mLayerPaint);
+    }
+
+    private void construirCapas(Calendar ahora) {
+        if (mCapaCielo == null) {
+            mCapaCielo = Bitmap.createBitmap(FaceLayout.TAMANO, FaceLayout.TAMANO, Bitmap.Config.ARGB_8888);
+            mCapaTexto = Bitmap.createBitmap(FaceLayout.TAMANO, FaceLayout.TAMANO, Bitmap.Config.ARGB_8888);
+            mCanvasCielo = new Canvas(mCapaCielo);
+            mCanvasTexto = new Canvas(mCapaTexto);
+        }
+        pintarCapas(ahora);
+        // sin presupuesto no hay nada que ajustar, y copiar los pixeles es lo mas caro del build
+        if (getConfig().getPresupuestoOled() < FaceConfig.SIN_PRESUPUESTO) {
+            // cada pintada se mide, asi lo ultimo medido es lo que queda en las capas
+            int repintados = 0;
+            while (medirCapas() && repintados < FacePainter.MAX_REPINTADOS) {
+                pintarCapas(ahora);
+                repintados++;
+            }
+        }
+        mPainter.marcarCapas(ahora);
+    }
+
+    private void pintarCapas(Calendar ahora) {
+        mCapaTexto.eraseColor(Color.TRANSPARENT);
+        mGraphics.setCanvas(mCanvasCielo);
+        mPainter.pintarCielo(mGraphics, ahora);
+        mGraphics.setCanvas(mCanvasTexto);
+        mPainter.pintarTexto(mGraphics, ahora);
+    }
+
+    private boolean medirCapas() {
+        int lado = FaceLayout.TAMANO;
+        if (mPixelesCielo == null) {
+            mPixelesCielo = new int[lado * lado];
+            mPixelesTexto = new int[lado * lado];
+        }
+        mCapaCielo.getPixels(mPixelesCielo, 0, lado, 0, 0, lado, lado);
+        mCapaTexto.getPixels(mPixelesTexto, 0, lado, 0, 0, lado, lado);
+        return mPainter.medirCapas(mPixelesCielo, mPixelesTexto);
+    }
+}
@@ -0,0 +1,53 @@
+package pablogventura.fugit;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.preference.PreferenceManager;
+
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.wearable.PutDataMapRequest;
+import com.google.android.gms.wearable.Wearable;
+
+import pablogventura.fugit.face.FaceConfigData;
+
+/**
+ * Sends the face settings to the watch while the settings screen is open: once when it starts,
+ * in case the watch missed an earlier change, and again every time a face setting changes. The
+ * Data Layer only tells the watch when the config is really different.
+ */
+class FaceConfigSender implements SharedPreferences.OnSharedPreferenceChangeListener {
+    private final SharedPreferences mPrefs;
+    private final GoogleApiClient mGoogleApiClient;
+
+    FaceConfigSender(Context context) {
+        mPrefs = PreferenceManager.getDefaultSharedPreferences(context);
+        mGoogleApiClient = new GoogleApiClient.Builder(context)
+                .addApi(Wearable.API)
+                .build();
+    }
+
+    void iniciar() {
+        mGoogleApiClient.connect();
+        mPrefs.registerOnSharedPreferenceChangeListener(this);
+        enviar();
+    }
+
+    void detener() {
+        mPrefs.unregisterOnSharedPreferenceChangeListener(this);
+        mGoogleApiClient.disconnect();
+    }
+
+    @Override
+    public void onSharedPreferenceChanged(SharedPreferences prefs, String key) {
+        if (FacePreferences.esDeLaCara(key)) {
+            enviar();
+        }
+    }
+
+    private void enviar() {
+        // si todavia no se conecto, el cliente lo encola hasta que lo haga
+        PutDataMapRequest pedido = PutDataMapRequest.create(FaceConfigData.PATH);
+        FaceConfigData.escribir(FacePreferences.leerConfig(mPrefs), pedido.getDataMap());
+        Wearable.DataApi.putDataItem(mGoogleApiClient, pedido.asPutDataRequest().setUrgent());
+    }
+}
@@ -0,0 +1,59 @@
+package pablogventura.fugit;
+
+import android.content.SharedPreferences;
+
+import pablogventura.fugit.face.FaceConfig;
+
+/**
+ * Keys of the face settings and how they turn into a {@link FaceConfig}.
+ */
+public class FacePreferences {
+    public static final String KEY_LATITUD = "face_latitud";
+    public static final String KEY_LONGITUD = "face_longitud";
+    public static final String KEY_ROTAR_ESTRELLAS = "face_rotar_estrellas";
+    public static final String KEY_COMPLICACIONES = "face_complicaciones";
+    public static final String KEY_INTERPOLAR_ASTROS = "face_interpolar_astros";
+    public static final String KEY_PRESUPUESTO_OLED = "face_presupuesto_oled";
+
+    private FacePreferences() {
+    }
+
+    /**
+     * Returns true if {@code key} is one of the settings that change how the face looks.
+     */
+    public static boolean esDeLaCara(String key) {
+        return key != null && key.startsWith("face_");
+    }
+
+    public static FaceConfig leerConfig(SharedPreferences prefs) {
+        double latitud = leerDouble(prefs, KEY_LATITUD, FaceConfig.LATITUD_DEFAULT);
+        double longitud = leerDouble(prefs, KEY_LONGITUD, FaceConfig.LONGITUD_DEFAULT);
+        double presupuesto = leerDouble(prefs, KEY_PRESUPUESTO_OLED, FaceConfig.SIN_PRESUPUESTO);
+        if (!(presupuesto > 0 && presupuesto <= FaceConfig.SIN_PRESUPUESTO)) {
+            presupuesto = FaceConfig.SIN_PRESUPUESTO;
+        }
+        double complicaciones = leerDouble(prefs, KEY_COMPLICACIONES, FaceConfig.COMPLICACIONES_DEFAULT);
+        if (!(complicaciones >= 0 && complicaciones <= FaceConfig.MAX_COMPLICACIONES)) {
+            complicaciones = FaceConfig.COMPLICACIONES_DEFAULT;
+        }
+        return new FaceConfig.Builder()
+                .setUbicacion(latitud, longitud)
+                .setRotarEstrellas(prefs.getBoolean(KEY_ROTAR_ESTRELLAS, false))
+                .setComplicaciones((int) complicaciones)
+                .setInterpolarAstros(prefs.getBoolean(KEY_INTERPOLAR_ASTROS, true))
+                .setPresupuestoOled((float) presupuesto)
+                .build();
+    }
+
+    private static double leerDouble(SharedPreferences prefs, String key, double porDefecto) {
+        String valor = prefs.getString(key, null);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            return Double.parseDouble(valor.trim());
+        } catch (NumberFormatException e) {
+            return porDefecto;
+        }
+    }
+}
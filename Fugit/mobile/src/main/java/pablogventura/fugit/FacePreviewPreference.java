@@ -0,0 +1,32 @@
+package pablogventura.fugit;
+
+import android.content.Context;
+import android.preference.Preference;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * A preference that is not a setting: it just puts a {@link FacePreviewView} at the top of the
+ * settings screen so the face can be seen while it's being configured.
+ */
+public class FacePreviewPreference extends Preference {
+    public FacePreviewPreference(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        setSelectable(false);
+        setPersistent(false);
+    }
+
+    @Override
+    protected View onCreateView(ViewGroup parent) {
+        FacePreviewView preview = new FacePreviewView(getContext());
+        int padding = getContext().getResources().getDimensionPixelSize(R.dimen.face_preview_padding);
+        preview.setPadding(padding, padding, padding, padding);
+        return preview;
+    }
+
+    @Override
+    protected void onBindView(View view) {
+        // nothing to bind, the preview reads the settings by itself
+    }
+}
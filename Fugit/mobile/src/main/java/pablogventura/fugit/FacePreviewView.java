@@ -0,0 +1,105 @@
+package pablogventura.fugit;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Canvas;
+import android.preference.PreferenceManager;
+import android.util.AttributeSet;
+import android.view.View;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import pablogventura.fugit.face.FaceLayout;
+import pablogventura.fugit.face.FaceRenderer;
+
+/**
+ * Shows the watch face as it would look right now, drawn on the phone with the same
+ * {@link FaceRenderer} the watch uses. It only redraws when a face setting changes or the minute
+ * ticks; any other redraw just blits the renderer's cached layers.
+ */
+public class FacePreviewView extends View {
+    private static final long MINUTE_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final FaceRenderer mRenderer;
+    private final SharedPreferences mPrefs;
+
+    /**
+     * SharedPreferences only keeps a weak reference to its listeners, so we hold on to it here.
+     */
+    private final SharedPreferences.OnSharedPreferenceChangeListener mPrefsListener =
+            new SharedPreferences.OnSharedPreferenceChangeListener() {
+                @Override
+                public void onSharedPreferenceChanged(SharedPreferences prefs, String key) {
+                    if (FacePreferences.esDeLaCara(key)) {
+                        mRenderer.setConfig(FacePreferences.leerConfig(prefs));
+                        invalidate();
+                    }
+                }
+            };
+
+    private final Runnable mMinuteTick = new Runnable() {
+        @Override
+        public void run() {
+            invalidate();
+            scheduleMinuteTick();
+        }
+    };
+
+    public FacePreviewView(Context context) {
+        this(context, null);
+    }
+
+    public FacePreviewView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        mRenderer = new FaceRenderer(context);
+        mPrefs = PreferenceManager.getDefaultSharedPreferences(context);
+        mRenderer.setConfig(FacePreferences.leerConfig(mPrefs));
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mPrefs.registerOnSharedPreferenceChangeListener(mPrefsListener);
+        // the settings may have changed while we were away
+        mRenderer.setConfig(FacePreferences.leerConfig(mPrefs));
+        scheduleMinuteTick();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        removeCallbacks(mMinuteTick);
+        mPrefs.unregisterOnSharedPreferenceChangeListener(mPrefsListener);
+        super.onDetachedFromWindow();
+    }
+
+    private void scheduleMinuteTick() {
+        removeCallbacks(mMinuteTick);
+        long timeMs = System.currentTimeMillis();
+        postDelayed(mMinuteTick, MINUTE_MS - (timeMs % MINUTE_MS));
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec);
+        int lado = Math.min(width - getPaddingLeft() - getPaddingRight(),
+                (int) (FaceLayout.TAMANO * getResources().getDisplayMetrics().density));
+        int height = lado + getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        int lado = Math.min(getWidth() - getPaddingLeft() - getPaddingRight(),
+                getHeight() - getPaddingTop() - getPaddingBottom());
+        if (lado <= 0) {
+            return;
+        }
+        float escala = (float) lado / FaceLayout.TAMANO;
+        canvas.save();
+        canvas.translate((getWidth() - lado) / 2f, getPaddingTop());
+        canvas.scale(escala, escala);
+        mRenderer.draw(canvas, Calendar.getInstance());
+        canvas.restore();
+    }
+}
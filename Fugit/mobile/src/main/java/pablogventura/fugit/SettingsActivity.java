@@ -116,10 +116,28 @@ public class SettingsActivity extends AppCompatPreferenceActivity {
                         .getString(preference.getKey(), ""));
     }
 
+    /**
+     * Keeps the watch in step with the face settings while they can be changed.
+     */
+    private FaceConfigSender mConfigSender;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setupActionBar();
+        mConfigSender = new FaceConfigSender(this);
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        mConfigSender.iniciar();
+    }
+
+    @Override
+    protected void onStop() {
+        mConfigSender.detener();
+        super.onStop();
     }
 
     /**
@@ -177,6 +195,10 @@ public class SettingsActivity extends AppCompatPreferenceActivity {
             // to their values. When their values change, their summaries are
             // updated to reflect the new value, per the Android Design
             // guidelines.
+            bindPreferenceSummaryToValue(findPreference(FacePreferences.KEY_LATITUD));
+            bindPreferenceSummaryToValue(findPreference(FacePreferences.KEY_LONGITUD));
+            bindPreferenceSummaryToValue(findPreference(FacePreferences.KEY_COMPLICACIONES));
+            bindPreferenceSummaryToValue(findPreference(FacePreferences.KEY_PRESUPUESTO_OLED));
             bindPreferenceSummaryToValue(findPreference("example_text"));
             bindPreferenceSummaryToValue(findPreference("example_list"));
         }
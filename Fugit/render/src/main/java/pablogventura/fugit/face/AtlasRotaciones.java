@@ -0,0 +1,95 @@
+package pablogventura.fugit.face;
+
+/**
+ * Bookkeeping for the atlas of pre-rotated sprites. The sun and the moon only turn from -150°
+ * to 150° over a whole day or night, so instead of resampling the sprite at every angle the
+ * backends render it once per {@link #PASO} degree step into a cell of an atlas and then blit
+ * the cell without rotating it.
+ * <p>
+ * The atlas has a row of {@link #CELDAS} cells per sprite and is filled lazily: a step that is
+ * not there takes the cell of the step farthest from it, so the atlas always holds the steps
+ * around the current angle. This class only decides which cell holds what and where to blit
+ * it; the pixels belong to the backend.
+ */
+public class AtlasRotaciones {
+    public static final float PASO = 1;
+    public static final int CELDAS = 8;
+
+    private static final int VACIA = Integer.MIN_VALUE;
+
+    private final int mLado;
+    private final int[][] mPasos = new int[FaceGraphics.Sprite.values().length][CELDAS];
+
+    /**
+     * @param ancho width of the biggest sprite
+     * @param alto  height of the biggest sprite
+     */
+    public AtlasRotaciones(int ancho, int alto) {
+        // cabe el sprite girado a cualquier angulo, con un pixel de margen para el filtrado
+        mLado = (int) Math.ceil(Math.sqrt(ancho * ancho + alto * alto)) + 2;
+        vaciar();
+    }
+
+    /**
+     * Side of a cell. The atlas is {@code CELDAS * lado} wide and one row per sprite high.
+     */
+    public int getLado() {
+        return mLado;
+    }
+
+    /**
+     * Forgets every cell, for example after the interpolation setting changed.
+     */
+    public void vaciar() {
+        for (int[] fila : mPasos) {
+            for (int i = 0; i < fila.length; i++) {
+                fila[i] = VACIA;
+            }
+        }
+    }
+
+    public static int paso(float degrees) {
+        return Math.round(degrees / PASO);
+    }
+
+    public static float grados(int paso) {
+        return paso * PASO;
+    }
+
+    /**
+     * Cell of {@code sprite} that holds {@code paso}. If none does, one is taken for it and
+     * {@code -(celda + 1)} is returned: the backend has to render the sprite there before
+     * blitting it.
+     */
+    public int buscar(FaceGraphics.Sprite sprite, int paso) {
+        int[] fila = mPasos[sprite.ordinal()];
+        int lejana = 0;
+        long distancia = -1;
+        for (int i = 0; i < fila.length; i++) {
+            if (fila[i] == paso) {
+                return i;
+            }
+            long otra = fila[i] == VACIA ? Long.MAX_VALUE : Math.abs((long) fila[i] - paso);
+            if (otra > distancia) {
+                distancia = otra;
+                lejana = i;
+            }
+        }
+        fila[lejana] = paso;
+        return -(lejana + 1);
+    }
+
+    /**
+     * Where the centre (cx, cy) of a sprite ends up after turning {@code paso} steps around
+     * (px, py). The cell is blitted centred there.
+     */
+    public static float centroX(float cx, float cy, int paso, float px, float py) {
+        double angulo = Math.toRadians(grados(paso));
+        return (float) (px + (cx - px) * Math.cos(angulo) - (cy - py) * Math.sin(angulo));
+    }
+
+    public static float centroY(float cx, float cy, int paso, float px, float py) {
+        double angulo = Math.toRadians(grados(paso));
+        return (float) (py + (cx - px) * Math.sin(angulo) + (cy - py) * Math.cos(angulo));
+    }
+}
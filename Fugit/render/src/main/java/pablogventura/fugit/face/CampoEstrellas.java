@@ -0,0 +1,94 @@
+package pablogventura.fugit.face;
+
+import java.util.Random;
+
+/**
+ * The stars of one night. They are generated from a seed made of the date of the night and the
+ * place, so the same night always shows the same sky and the next night shows a different one.
+ * <p>
+ * The field covers a square of {@link #getLado} face units centred on the point it turns around.
+ * Backends render it once into a tile and then only blit the tile, rotated if needed.
+ */
+public class CampoEstrellas {
+    /**
+     * About 130 stars on the visible face.
+     */
+    private static final float ESTRELLAS_POR_UNIDAD = 130f / (FaceLayout.TAMANO * FaceLayout.TAMANO);
+
+    private final long mSemilla;
+    private final int mLado;
+    private final float[] mX;
+    private final float[] mY;
+    private final float[] mRadio;
+    private final int[] mColor;
+
+    private CampoEstrellas(long semilla, int lado, int cantidad) {
+        mSemilla = semilla;
+        mLado = lado;
+        mX = new float[cantidad];
+        mY = new float[cantidad];
+        mRadio = new float[cantidad];
+        mColor = new int[cantidad];
+    }
+
+    /**
+     * Seed for the night that started on {@code noche} (as yyyymmdd) at the given place. The
+     * place is rounded to a tenth of a degree so small location changes keep the same sky.
+     */
+    public static long semilla(int noche, double latitud, double longitud) {
+        long semilla = noche;
+        semilla = semilla * 31 + Math.round(latitud * 10);
+        semilla = semilla * 31 + Math.round(longitud * 10);
+        return semilla;
+    }
+
+    public static CampoEstrellas generar(long semilla, int lado) {
+        Random random = new Random(semilla);
+        CampoEstrellas campo = new CampoEstrellas(semilla, lado, Math.round(ESTRELLAS_POR_UNIDAD * lado * lado));
+        for (int i = 0; i < campo.mX.length; i++) {
+            campo.mX[i] = random.nextFloat() * lado;
+            campo.mY[i] = random.nextFloat() * lado;
+            // pocas estrellas brillantes y muchas debiles
+            float brillo = random.nextFloat();
+            brillo = brillo * brillo * brillo;
+            campo.mRadio[i] = 0.6f + 1.8f * brillo;
+            int alpha = 90 + Math.round(165 * brillo);
+            // algunas un poco azules, algunas un poco amarillas
+            int tinte = random.nextInt(40) - 20;
+            campo.mColor[i] = Colores.argb(alpha,
+                    255 - Math.max(0, -tinte), 255 - Math.abs(tinte) / 2, 255 - Math.max(0, tinte));
+        }
+        return campo;
+    }
+
+    public long getSemilla() {
+        return mSemilla;
+    }
+
+    public int getLado() {
+        return mLado;
+    }
+
+    public int getCantidad() {
+        return mX.length;
+    }
+
+    /**
+     * Position of star {@code i} inside the field, from 0 to {@link #getLado}.
+     */
+    public float getX(int i) {
+        return mX[i];
+    }
+
+    public float getY(int i) {
+        return mY[i];
+    }
+
+    public float getRadio(int i) {
+        return mRadio[i];
+    }
+
+    public int getColor(int i) {
+        return mColor[i];
+    }
+}
@@ -0,0 +1,126 @@
+package pablogventura.fugit.face;
+
+/**
+ * Sky colors as a function of the elevation of the sun, so dawn and dusk go smoothly through
+ * astronomical, nautical and civil twilight instead of jumping from night to day.
+ * <p>
+ * The colors are precomputed into a {@link #TAMANO_LUT} entry table over the whole -90°..90°
+ * range. Night and full day are flat in the table, so the gradient only changes (and backends
+ * only rebuild their shader) while the sun is crossing twilight. There the sun goes through an
+ * entry every few minutes, so {@link FacePainter} moves the sky at most every ten.
+ */
+public class Cielo {
+    public static final int TAMANO_LUT = 256;
+
+    /**
+     * Elevation of the sun in degrees, and the sky colors at the top and at the bottom of the
+     * gradient for it. The table is interpolated between these.
+     */
+    private static final double[] ELEVACIONES = {-90, -18, -12, -6, -3, 0, 6, 10, 90};
+    private static final int[] ARRIBA = {
+            Colores.rgb(0, 0, 0), // noche
+            Colores.rgb(0, 0, 0), // fin del crepusculo astronomico
+            Colores.rgb(0, 0, 20), // crepusculo nautico
+            Colores.rgb(15, 30, 80), // crepusculo civil
+            Colores.rgb(40, 70, 140),
+            Colores.rgb(70, 130, 200), // horizonte
+            Colores.rgb(0, 220, 255),
+            Colores.rgb(0, 255, 255), // dia
+            Colores.rgb(0, 255, 255),
+    };
+    private static final int[] ABAJO = {
+            Colores.rgb(0, 0, 50),
+            Colores.rgb(0, 0, 50),
+            Colores.rgb(15, 15, 80),
+            Colores.rgb(60, 50, 120),
+            Colores.rgb(170, 90, 90),
+            Colores.rgb(250, 140, 70),
+            Colores.rgb(150, 190, 230),
+            Colores.rgb(0, 255 / 3 * 2, 255),
+            Colores.rgb(0, 255 / 3 * 2, 255),
+    };
+
+    private static final int[] LUT_ARRIBA = new int[TAMANO_LUT];
+    private static final int[] LUT_ABAJO = new int[TAMANO_LUT];
+
+    static {
+        int tramo = 0;
+        for (int i = 0; i < TAMANO_LUT; i++) {
+            double elevacion = elevacion(i);
+            while (elevacion > ELEVACIONES[tramo + 1]) {
+                tramo++;
+            }
+            double t = (elevacion - ELEVACIONES[tramo]) / (ELEVACIONES[tramo + 1] - ELEVACIONES[tramo]);
+            LUT_ARRIBA[i] = mezclar(ARRIBA[tramo], ARRIBA[tramo + 1], t);
+            LUT_ABAJO[i] = mezclar(ABAJO[tramo], ABAJO[tramo + 1], t);
+        }
+    }
+
+    private Cielo() {
+    }
+
+    /**
+     * Entry of the table for the given elevation of the sun, in degrees.
+     */
+    public static int indice(double elevacion) {
+        int indice = (int) Math.round((elevacion + 90) / 180 * (TAMANO_LUT - 1));
+        return Math.max(0, Math.min(TAMANO_LUT - 1, indice));
+    }
+
+    /**
+     * Elevation of the sun, in degrees, at the middle of the given entry.
+     */
+    public static double elevacion(int indice) {
+        return indice * 180.0 / (TAMANO_LUT - 1) - 90;
+    }
+
+    public static int colorArriba(int indice) {
+        return LUT_ARRIBA[indice];
+    }
+
+    public static int colorAbajo(int indice) {
+        return LUT_ABAJO[indice];
+    }
+
+    /**
+     * Elevation of the sun over the horizon, in degrees, using the low precision formulas of the
+     * Astronomical Almanac, without refraction. Good to a few hundredths of a degree, plenty for
+     * picking a color.
+     */
+    public static double elevacionSolar(double latitud, double longitud, long millis) {
+        // dias desde J2000.0
+        double d = millis / 86400000.0 + 2440587.5 - 2451545.0;
+        double g = Math.toRadians(357.529 + 0.98560028 * d);
+        double q = 280.459 + 0.98564736 * d;
+        double l = Math.toRadians(q + 1.915 * Math.sin(g) + 0.020 * Math.sin(2 * g));
+        double e = Math.toRadians(23.439 - 0.00000036 * d);
+
+        double ascensionRecta = Math.atan2(Math.cos(e) * Math.sin(l), Math.cos(l));
+        double declinacion = Math.asin(Math.sin(e) * Math.sin(l));
+
+        double anguloHorario = Math.toRadians(tiempoSidereo(longitud, millis)) - ascensionRecta;
+
+        double lat = Math.toRadians(latitud);
+        double seno = Math.sin(lat) * Math.sin(declinacion)
+                + Math.cos(lat) * Math.cos(declinacion) * Math.cos(anguloHorario);
+        return Math.toDegrees(Math.asin(seno));
+    }
+
+    /**
+     * Local sidereal time in degrees, from 0 to 360: how far the sky has turned around the
+     * celestial pole.
+     */
+    public static double tiempoSidereo(double longitud, long millis) {
+        double d = millis / 86400000.0 + 2440587.5 - 2451545.0;
+        double grados = (18.697374558 + 24.06570982441908 * d) * 15 + longitud;
+        grados %= 360;
+        return grados < 0 ? grados + 360 : grados;
+    }
+
+    private static int mezclar(int desde, int hasta, double t) {
+        return Colores.rgb(
+                (int) Math.round(Colores.red(desde) + (Colores.red(hasta) - Colores.red(desde)) * t),
+                (int) Math.round(Colores.green(desde) + (Colores.green(hasta) - Colores.green(desde)) * t),
+                (int) Math.round(Colores.blue(desde) + (Colores.blue(hasta) - Colores.blue(desde)) * t));
+    }
+}
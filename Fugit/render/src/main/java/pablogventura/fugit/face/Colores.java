@@ -0,0 +1,56 @@
+package pablogventura.fugit.face;
+
+/**
+ * Packed ARGB colors, the same layout as android.graphics.Color, for code that can't use it.
+ */
+public class Colores {
+    public static final int BLACK = 0xFF000000;
+    public static final int WHITE = 0xFFFFFFFF;
+    public static final int TRANSPARENT = 0;
+
+    private Colores() {
+    }
+
+    public static int rgb(int red, int green, int blue) {
+        return argb(0xFF, red, green, blue);
+    }
+
+    public static int argb(int alpha, int red, int green, int blue) {
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+
+    public static int alpha(int color) {
+        return color >>> 24;
+    }
+
+    public static int red(int color) {
+        return (color >> 16) & 0xFF;
+    }
+
+    public static int green(int color) {
+        return (color >> 8) & 0xFF;
+    }
+
+    public static int blue(int color) {
+        return color & 0xFF;
+    }
+
+    /**
+     * The same color with red, green and blue multiplied by {@code factor}, between 0 and 1.
+     */
+    public static int escalar(int color, float factor) {
+        return argb(alpha(color), Math.round(red(color) * factor), Math.round(green(color) * factor),
+                Math.round(blue(color) * factor));
+    }
+
+    /**
+     * How lit an OLED pixel of this (not premultiplied) color is, from 0 to {@link #LUZ_MAXIMA}.
+     * The channels are weighted like Rec. 709 luma, which is close to what each subpixel draws.
+     */
+    public static int luz(int color) {
+        int luma = 2126 * red(color) + 7152 * green(color) + 722 * blue(color);
+        return luma / 255 * alpha(color);
+    }
+
+    public static final int LUZ_MAXIMA = 10000 * 255;
+}
@@ -0,0 +1,125 @@
+package pablogventura.fugit.face;
+
+import com.luckycatlabs.sunrisesunset.SunriseSunsetCalculator;
+import com.luckycatlabs.sunrisesunset.dto.Location;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Civil sunrise and sunset for one place and time zone. Building the calculator is not free, so
+ * keep one of these around until the config or the time zone changes.
+ * <p>
+ * The sunrises and sunsets of yesterday, today and tomorrow are computed once per local day and
+ * kept in order; the sun or the moon is then between the last one that already happened and
+ * the next one. Near the poles some of them don't exist: then the sky is all day or all night
+ * and the sprite crosses it once between midnights.
+ */
+public class Efemerides {
+    /**
+     * The civil twilight ends with the sun this far below the horizon.
+     */
+    private static final double ELEVACION_CIVIL = -6;
+
+    private final SunriseSunsetCalculator mCalculator;
+    private final TimeZone mZona;
+    private final double mLatitud;
+    private final double mLongitud;
+
+    /**
+     * Local day (yyyymmdd) the events are for, or -1 before the first call.
+     */
+    private int mDia = -1;
+    private final long[] mEventos = new long[6];
+    private final boolean[] mAmaneceres = new boolean[6];
+    private int mCantidad;
+    private long mInicioDia;
+    private long mFinDia;
+
+    public Efemerides(FaceConfig config, TimeZone zona) {
+        Location location = new Location(config.getLatitud(), config.getLongitud());
+        mCalculator = new SunriseSunsetCalculator(location, zona);
+        mZona = zona;
+        mLatitud = config.getLatitud();
+        mLongitud = config.getLongitud();
+    }
+
+    public TimeZone getZona() {
+        return mZona;
+    }
+
+    /**
+     * Where the sun or the moon is at {@code ahora}, which has to be in {@link #getZona}. The
+     * fraction is always in [0,1).
+     */
+    public Situacion situacion(Calendar ahora) {
+        eventos(ahora);
+        long t = ahora.getTimeInMillis();
+        int anterior = -1;
+        while (anterior + 1 < mCantidad && mEventos[anterior + 1] <= t) {
+            anterior++;
+        }
+        int siguiente = anterior + 1 < mCantidad ? anterior + 1 : -1;
+
+        boolean deDia;
+        if (anterior >= 0) {
+            deDia = mAmaneceres[anterior];
+        } else if (siguiente >= 0) {
+            deDia = !mAmaneceres[siguiente];
+        } else {
+            // dia o noche polar
+            deDia = Cielo.elevacionSolar(mLatitud, mLongitud, t) > ELEVACION_CIVIL;
+        }
+        long desde = anterior >= 0 ? mEventos[anterior] : mInicioDia;
+        long hasta = siguiente >= 0 ? mEventos[siguiente] : mFinDia;
+        return new Situacion(deDia, ((double) (t - desde)) / (hasta - desde));
+    }
+
+    /**
+     * Computes the events around the local day of {@code ahora}, if they are not the ones kept.
+     */
+    private void eventos(Calendar ahora) {
+        int dia = ahora.get(Calendar.YEAR) * 10000 + (ahora.get(Calendar.MONTH) + 1) * 100
+                + ahora.get(Calendar.DAY_OF_MONTH);
+        if (dia == mDia) {
+            return;
+        }
+        Calendar fecha = (Calendar) ahora.clone();
+        fecha.set(Calendar.HOUR_OF_DAY, 0);
+        fecha.set(Calendar.MINUTE, 0);
+        fecha.set(Calendar.SECOND, 0);
+        fecha.set(Calendar.MILLISECOND, 0);
+        mInicioDia = fecha.getTimeInMillis();
+        fecha.add(Calendar.DATE, 1);
+        mFinDia = fecha.getTimeInMillis();
+
+        mCantidad = 0;
+        fecha.add(Calendar.DATE, -2);
+        for (int i = 0; i < 3; i++) {
+            agregar(mCalculator.getCivilSunriseCalendarForDate(fecha), true);
+            agregar(mCalculator.getCivilSunsetCalendarForDate(fecha), false);
+            fecha.add(Calendar.DATE, 1);
+        }
+        mDia = dia;
+    }
+
+    /**
+     * Inserts an event keeping them in order. The calculator returns null for the ones that
+     * don't happen.
+     */
+    private void agregar(Calendar evento, boolean amanecer) {
+        if (evento == null) {
+            return;
+        }
+        long t = evento.getTimeInMillis();
+        int i = mCantidad;
+        while (i > 0 && mEventos[i - 1] > t) {
+            mEventos[i] = mEventos[i - 1];
+            mAmaneceres[i] = mAmaneceres[i - 1];
+            i--;
+        }
+        mEventos[i] = t;
+        mAmaneceres[i] = amanecer;
+        mCantidad++;
+    }
+}
@@ -0,0 +1,25 @@
+package pablogventura.fugit.face;
+
+import java.util.TimeZone;
+
+/**
+ * Where the face reads the time and the time zone from. The watch uses {@link #SISTEMA}; tests
+ * and the simulator use a {@link SimulatedFaceClock} so they can jump through a year in seconds.
+ */
+public interface FaceClock {
+    FaceClock SISTEMA = new FaceClock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public TimeZone getTimeZone() {
+            return TimeZone.getDefault();
+        }
+    };
+
+    long currentTimeMillis();
+
+    TimeZone getTimeZone();
+}
@@ -0,0 +1,154 @@
+package pablogventura.fugit.face;
+
+/**
+ * Settings that change how the face looks. The watch and the phone preview build one of these
+ * with a {@link Builder} and hand it to the renderer; two equal configs always render the same
+ * face.
+ */
+public class FaceConfig {
+    /**
+     * Cordoba, Argentina. Where the face was born.
+     */
+    public static final double LATITUD_DEFAULT = -31.416666666667;
+    public static final double LONGITUD_DEFAULT = -64.183333333333;
+
+    /**
+     * Complication slots fit on the free side of the face, left of the time.
+     */
+    public static final int MAX_COMPLICACIONES = 4;
+    public static final int COMPLICACIONES_DEFAULT = 3;
+
+    /**
+     * No OLED budget: the face is painted with its full palette.
+     */
+    public static final float SIN_PRESUPUESTO = 1;
+
+    private final double mLatitud;
+    private final double mLongitud;
+    private final boolean mRotarEstrellas;
+    private final int mComplicaciones;
+    private final boolean mInterpolarAstros;
+    private final float mPresupuestoOled;
+
+    public FaceConfig() {
+        this(new Builder());
+    }
+
+    private FaceConfig(Builder builder) {
+        mLatitud = builder.mLatitud;
+        mLongitud = builder.mLongitud;
+        mRotarEstrellas = builder.mRotarEstrellas;
+        mComplicaciones = builder.mComplicaciones;
+        mInterpolarAstros = builder.mInterpolarAstros;
+        mPresupuestoOled = builder.mPresupuestoOled;
+    }
+
+    public double getLatitud() {
+        return mLatitud;
+    }
+
+    public double getLongitud() {
+        return mLongitud;
+    }
+
+    /**
+     * Whether the stars turn slowly around the celestial pole during the night.
+     */
+    public boolean isRotarEstrellas() {
+        return mRotarEstrellas;
+    }
+
+    /**
+     * How many complication slots the face shows, from 0 to {@link #MAX_COMPLICACIONES}.
+     */
+    public int getComplicaciones() {
+        return mComplicaciones;
+    }
+
+    /**
+     * Whether the sun and the moon are filtered when they are turned, or drawn with hard pixels.
+     */
+    public boolean isInterpolarAstros() {
+        return mInterpolarAstros;
+    }
+
+    /**
+     * How lit the face may be on average, from 0 (black) to 1 (every pixel white). The sky and
+     * the text are dimmed to stay under it; {@link #SIN_PRESUPUESTO} turns it off.
+     */
+    public float getPresupuestoOled() {
+        return mPresupuestoOled;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FaceConfig)) {
+            return false;
+        }
+        FaceConfig otra = (FaceConfig) o;
+        return Double.compare(mLatitud, otra.mLatitud) == 0
+                && Double.compare(mLongitud, otra.mLongitud) == 0
+                && mRotarEstrellas == otra.mRotarEstrellas
+                && mComplicaciones == otra.mComplicaciones
+                && mInterpolarAstros == otra.mInterpolarAstros
+                && Float.compare(mPresupuestoOled, otra.mPresupuestoOled) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        long bits = Double.doubleToLongBits(mLatitud) * 31 + Double.doubleToLongBits(mLongitud);
+        int hash = (int) (bits ^ (bits >>> 32)) * 31 + (mRotarEstrellas ? 1 : 0);
+        hash = hash * 31 + mComplicaciones;
+        hash = hash * 31 + (mInterpolarAstros ? 1 : 0);
+        return hash * 31 + Float.floatToIntBits(mPresupuestoOled);
+    }
+
+    public static class Builder {
+        private double mLatitud = LATITUD_DEFAULT;
+        private double mLongitud = LONGITUD_DEFAULT;
+        private boolean mRotarEstrellas;
+        private int mComplicaciones = COMPLICACIONES_DEFAULT;
+        private boolean mInterpolarAstros = true;
+        private float mPresupuestoOled = SIN_PRESUPUESTO;
+
+        public Builder setUbicacion(double latitud, double longitud) {
+            mLatitud = latitud;
+            mLongitud = longitud;
+            return this;
+        }
+
+        public Builder setRotarEstrellas(boolean rotarEstrellas) {
+            mRotarEstrellas = rotarEstrellas;
+            return this;
+        }
+
+        public Builder setComplicaciones(int complicaciones) {
+            if (complicaciones < 0 || complicaciones > MAX_COMPLICACIONES) {
+                throw new IllegalArgumentException("complicaciones must be 0.." + MAX_COMPLICACIONES
+                        + ", was " + complicaciones);
+            }
+            mComplicaciones = complicaciones;
+            return this;
+        }
+
+        public Builder setInterpolarAstros(boolean interpolarAstros) {
+            mInterpolarAstros = interpolarAstros;
+            return this;
+        }
+
+        public Builder setPresupuestoOled(float presupuestoOled) {
+            if (!(presupuestoOled > 0 && presupuestoOled <= SIN_PRESUPUESTO)) {
+                throw new IllegalArgumentException("presupuestoOled must be in (0, 1], was " + presupuestoOled);
+            }
+            mPresupuestoOled = presupuestoOled;
+            return this;
+        }
+
+        public FaceConfig build() {
+            return new FaceConfig(this);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package pablogventura.fugit.face;
+
+/**
+ * The few drawing calls the face needs. {@link FacePainter} only talks to this, so the same face
+ * can be drawn on an Android Canvas or on a desktop Graphics2D.
+ * <p>
+ * Coordinates are in face units (see {@link FaceLayout#TAMANO}), angles in degrees clockwise and
+ * colors are packed ARGB ints, like android.graphics.Color.
+ */
+public interface FaceGraphics {
+    /**
+     * Bitmaps the face draws. Each backend loads its own copy.
+     */
+    enum Sprite {
+        SOL, LUNA
+    }
+
+    enum Fuente {
+        SERIF, SANS_SERIF
+    }
+
+    void fillRect(float left, float top, float right, float bottom, int color);
+
+    /**
+     * Fills the rectangle with a vertical gradient from {@code color0} at {@code y0} to
+     * {@code color1} at {@code y1}, clamped outside of that range.
+     */
+    void fillGradient(float left, float top, float right, float bottom,
+                      float y0, int color0, float y1, int color1);
+
+    /**
+     * Draws {@code sprite} with its top left corner at ({@code x}, {@code y}), rotated
+     * {@code degrees} around ({@code px}, {@code py}). Backends may round the angle to
+     * {@link AtlasRotaciones#PASO} and blit a pre-rotated copy on whole pixels;
+     * {@code interpolar} says whether that copy is filtered when it's turned.
+     */
+    void drawSprite(Sprite sprite, float x, float y, float degrees, float px, float py, boolean interpolar);
+
+    /**
+     * Draws the stars of {@code campo} with the centre of the field at ({@code cx}, {@code cy}),
+     * rotated {@code degrees} around it. Backends render a field into a tile the first time they
+     * see it and reuse the tile until they get a different field.
+     */
+    void drawStarfield(CampoEstrellas campo, float cx, float cy, float degrees);
+
+    float measureText(String text, Fuente fuente, float size);
+
+    /**
+     * Draws {@code text} with its baseline starting at ({@code x}, {@code y}), rotated
+     * {@code degrees} around ({@code px}, {@code py}). When {@code borde} is true only the
+     * outline is drawn.
+     */
+    void drawText(String text, float x, float y, float degrees, float px, float py,
+                  Fuente fuente, float size, int color, boolean borde);
+
+    /**
+     * Draws {@code text} along the arc of the oval, like Canvas.drawTextOnPath with a path made
+     * by Path.addArc. {@code hOffset} is the distance along the arc and {@code vOffset} moves the
+     * text to the right of the direction the arc is drawn in.
+     */
+    void drawTextOnArc(String text, float left, float top, float right, float bottom,
+                       float startAngle, float sweepAngle, float hOffset, float vOffset,
+                       Fuente fuente, float size, int color, boolean borde);
+}
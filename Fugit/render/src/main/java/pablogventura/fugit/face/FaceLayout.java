@@ -0,0 +1,136 @@
+package pablogventura.fugit.face;
+
+/**
+ * Where everything goes on the face. Coordinates are in face units: the face is always drawn as
+ * a {@link #TAMANO} x {@link #TAMANO} square and the caller scales it to its surface.
+ */
+public class FaceLayout {
+    /**
+     * moto 360 320x290px 241x218dp
+     */
+    public static final int TAMANO = 320;
+
+    /**
+     * Density of the moto 360, for backends that have no resources to read the dimens from.
+     */
+    public static final float DENSIDAD_MOTO_360 = 320f / 241f;
+
+    /**
+     * The sun and the moon turn around this point, from -150° at sunrise/sunset to 150°.
+     */
+    public static final float PIVOTE_X = TAMANO / 2;
+    public static final float PIVOTE_Y = TAMANO * 6 / 10;
+    public static final float ASTRO_X = TAMANO / 2 - 50 / 2;
+    public static final float ASTRO_Y = 0;
+
+    /**
+     * Side of the sun and the moon in face units: the 50dp sprites decoded at the density of the
+     * moto 360.
+     */
+    public static final float LADO_ASTRO = 50 * DENSIDAD_MOTO_360;
+
+    /**
+     * The sky gradient ends here, the rest is the bottom color.
+     */
+    public static final float ALTO_GRADIENTE = TAMANO * 5 / 6;
+
+    public static final int LARGO_ARCO = 456; //2*pi * (320-30)/2 / 2;
+
+    /**
+     * The date goes around the edge: the day of the month on top, the day of the week below.
+     */
+    public static final float ARCO_SUPERIOR_INICIO = -180;
+    public static final float ARCO_SUPERIOR_BARRIDO = 180;
+    public static final float ARCO_INFERIOR_INICIO = 180;
+    public static final float ARCO_INFERIOR_BARRIDO = -180;
+
+    /**
+     * The hours and the minutes are tilted this much around the hours.
+     */
+    public static final float INCLINACION_HORA = -17;
+
+    /**
+     * Complication slots are circles of this radius, spread over an arc around the pivot on the
+     * left of the face: inside the orbit of the sun and the moon and away from the text.
+     */
+    public static final float RADIO_COMPLICACION = 26;
+    private static final float DISTANCIA_COMPLICACION = 95;
+    private static final float ARCO_COMPLICACIONES_INICIO = 150;
+    private static final float ARCO_COMPLICACIONES_BARRIDO = 105;
+
+    private final float hXOffset;
+    private final float hYOffset;
+    private final float mXOffset;
+    private final float mYOffset;
+    private final float mHourSize;
+    private final float mDateSize;
+
+    public FaceLayout(float hXOffset, float hYOffset, float mXOffset, float mYOffset,
+                      float hourSize, float dateSize) {
+        this.hXOffset = hXOffset;
+        this.hYOffset = hYOffset;
+        this.mXOffset = mXOffset;
+        this.mYOffset = mYOffset;
+        mHourSize = hourSize;
+        mDateSize = dateSize;
+    }
+
+    /**
+     * Same values as face/src/main/res/values/dimens.xml, in pixels for the given density.
+     */
+    public static FaceLayout conDensidad(float density) {
+        return new FaceLayout(183 * density, 109 * density, 183 * density, 159 * density,
+                45 * density, 20 * density);
+    }
+
+    public float getHoursX() {
+        return hXOffset;
+    }
+
+    public float getHoursY() {
+        return hYOffset;
+    }
+
+    public float getMinutesX() {
+        return mXOffset;
+    }
+
+    public float getMinutesY() {
+        return mYOffset;
+    }
+
+    public float getHourSize() {
+        return mHourSize;
+    }
+
+    public float getDateSize() {
+        return mDateSize;
+    }
+
+    /**
+     * Centre of complication slot {@code i} out of {@code cantidad}.
+     */
+    public static float complicacionX(int i, int cantidad) {
+        double angulo = Math.toRadians(anguloComplicacion(i, cantidad));
+        return (float) (PIVOTE_X + DISTANCIA_COMPLICACION * Math.cos(angulo));
+    }
+
+    public static float complicacionY(int i, int cantidad) {
+        double angulo = Math.toRadians(anguloComplicacion(i, cantidad));
+        return (float) (PIVOTE_Y + DISTANCIA_COMPLICACION * Math.sin(angulo));
+    }
+
+    private static float anguloComplicacion(int i, int cantidad) {
+        if (cantidad <= 1) {
+            return ARCO_COMPLICACIONES_INICIO + ARCO_COMPLICACIONES_BARRIDO / 2;
+        }
+        return ARCO_COMPLICACIONES_INICIO + ARCO_COMPLICACIONES_BARRIDO * i / (cantidad - 1);
+    }
+
+    /**
+     * Turns the day or night fraction into the rotation of the sun or the moon.
+     */
+    public static float angulo(double porcentaje) {
+        return (float) ((porcentaje * 300) - 150);
+    }
+}
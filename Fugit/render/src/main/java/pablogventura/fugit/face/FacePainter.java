@@ -0,0 +1,420 @@
+package pablogventura.fugit.face;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paints the Fugit face on a {@link FaceGraphics}: the sky with the sun or the moon in one layer,
+ * the date around the edge and the time in another. The sky color follows the elevation of the
+ * sun through {@link Cielo}; the sun or the moon still switch at civil sunrise and sunset.
+ * <p>
+ * Nothing on the face moves faster than a minute, so backends keep both layers cached and ask
+ * {@link #necesitaCapas} before repainting them.
+ * <p>
+ * Backends also hand the freshly painted layers to {@link #medirCapas}, which measures how lit
+ * they are once per build. With an OLED budget in the config the sky and the text are dimmed
+ * until the face fits in it.
+ */
+public class FacePainter {
+    /**
+     * A build over the budget is painted again at most this many times; whatever is still left
+     * over is taken off in the next minute's build. Every paint is measured, so the last measure
+     * is always the layers on screen.
+     */
+    public static final int MAX_REPINTADOS = 2;
+
+    /**
+     * The budget never takes the sky below this, nor the text below {@link #BRILLO_MINIMO_TEXTO}
+     * so it can still be read.
+     */
+    private static final float BRILLO_MINIMO = 0.05f;
+    private static final float BRILLO_MINIMO_TEXTO = 0.6f;
+
+    /**
+     * The brightness aims this far under the budget, so it doesn't bounce over it every other
+     * minute. It only goes back up when the face falls this far under that aim too: the text
+     * changes every minute, and each small change of brightness is a new sky gradient.
+     */
+    private static final double HOLGURA = 0.9;
+
+    /**
+     * The sky gradient, its color or its brightness, changes at most this often, so the backends
+     * rebuild their gradient a handful of times an hour and not every few minutes. Only dimming
+     * a face that went over the budget doesn't wait.
+     */
+    private static final long INTERVALO_CIELO_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private final FaceLayout mLayout;
+
+    private final SimpleDateFormat fDiaMes;
+    private final SimpleDateFormat fDiaSemana;
+
+    private FaceConfig mConfig = new FaceConfig();
+    private Efemerides mEfemerides;
+
+    /**
+     * Minute the layers were painted for, or -1 when they have to be painted again.
+     */
+    private long mMinutoCapas = -1;
+    private int mIndiceCielo = -1;
+    /**
+     * When the sky gradient last changed, and when the layers being built were painted for.
+     */
+    private long mCambioCielo;
+    private long mTiempoCapas;
+    private Situacion mSituacion;
+
+    private float mBrillo = 1;
+    /**
+     * A brighter sky the budget allows, waiting for {@link #INTERVALO_CIELO_MS}; -1 if none.
+     */
+    private float mBrilloPendiente = -1;
+    private double mEncendidoCielo = -1;
+    private double mEncendidoTexto = -1;
+    private double mEncendido = -1;
+    /**
+     * The brightness and light of the previous measure of this build, or -1 on its first.
+     */
+    private float mBrilloAnterior = -1;
+    private double mEncendidoAnterior;
+
+    private CampoEstrellas mEstrellas;
+    private final Calendar mNoche = Calendar.getInstance();
+
+    public FacePainter(FaceLayout layout) {
+        mLayout = layout;
+        fDiaMes = new SimpleDateFormat("d 'de' MMMM", Locale.getDefault());
+        fDiaSemana = new SimpleDateFormat("EEEE", Locale.getDefault());
+    }
+
+    public FaceLayout getLayout() {
+        return mLayout;
+    }
+
+    public FaceConfig getConfig() {
+        return mConfig;
+    }
+
+    /**
+     * Changes the config. The layers are only thrown away if it's really a different config.
+     */
+    public void setConfig(FaceConfig config) {
+        if (mConfig.equals(config)) {
+            return;
+        }
+        mConfig = config;
+        mBrillo = 1;
+        mBrilloPendiente = -1;
+        mBrilloAnterior = -1;
+        mIndiceCielo = -1;
+        mEfemerides = null;
+        mEstrellas = null;
+        invalidateLayers();
+    }
+
+    /**
+     * Forces the layers to be painted again, for example after a time zone change.
+     */
+    public void invalidateLayers() {
+        mMinutoCapas = -1;
+    }
+
+    /**
+     * Returns true if the cached layers don't show {@code ahora}.
+     */
+    public boolean necesitaCapas(Calendar ahora) {
+        return ahora.getTimeInMillis() / 60000 != mMinutoCapas;
+    }
+
+    /**
+     * Remembers that the layers now show {@code ahora}. Call it after painting both.
+     */
+    public void marcarCapas(Calendar ahora) {
+        mMinutoCapas = ahora.getTimeInMillis() / 60000;
+        mBrilloAnterior = -1;
+    }
+
+    public void pintarCielo(FaceGraphics g, Calendar ahora) {
+        mTiempoCapas = ahora.getTimeInMillis();
+        double elevacion = Cielo.elevacionSolar(mConfig.getLatitud(), mConfig.getLongitud(), mTiempoCapas);
+        moverCielo(Cielo.indice(elevacion), mTiempoCapas);
+        g.fillGradient(0, 0, FaceLayout.TAMANO, FaceLayout.TAMANO,
+                0, Colores.escalar(Cielo.colorArriba(mIndiceCielo), mBrillo),
+                FaceLayout.ALTO_GRADIENTE, Colores.escalar(Cielo.colorAbajo(mIndiceCielo), mBrillo));
+
+        Situacion situacion = efemerides(ahora.getTimeZone()).situacion(ahora);
+        mSituacion = situacion;
+        if (situacion.esDeDia()) {
+            dia(g, situacion.getPorcentaje());
+        } else {
+            noche(g, situacion.getPorcentaje(), ahora);
+        }
+    }
+
+    /**
+     * Takes {@code indice} as the sky's entry if it looks the same as the current one. A new
+     * color or a pending brightness wait until the sky gradient hasn't changed in the last
+     * {@link #INTERVALO_CIELO_MS}, and then change together.
+     */
+    private void moverCielo(int indice, long t) {
+        if (mIndiceCielo < 0) {
+            mIndiceCielo = indice;
+            mCambioCielo = t;
+            return;
+        }
+        boolean mismoColor = Cielo.colorArriba(indice) == Cielo.colorArriba(mIndiceCielo)
+                && Cielo.colorAbajo(indice) == Cielo.colorAbajo(mIndiceCielo);
+        if (mismoColor) {
+            mIndiceCielo = indice;
+        }
+        if ((mismoColor && mBrilloPendiente < 0) || Math.abs(t - mCambioCielo) < INTERVALO_CIELO_MS) {
+            return;
+        }
+        float brillo = mBrilloPendiente < 0 ? mBrillo : mBrilloPendiente;
+        float luz = luzCielo(indice);
+        if (mConfig.getPresupuestoOled() < FaceConfig.SIN_PRESUPUESTO && luz > luzCielo(mIndiceCielo)) {
+            // un color mas claro se oscurece para no pasarse; uno mas oscuro deja lugar para
+            // subir, y eso se mide y espera al proximo cambio
+            brillo = Math.max(BRILLO_MINIMO, brillo * luzCielo(mIndiceCielo) / luz);
+        }
+        mIndiceCielo = indice;
+        mBrillo = brillo;
+        mBrilloPendiente = -1;
+        mCambioCielo = t;
+    }
+
+    private static float luzCielo(int indice) {
+        return Math.max(1, Colores.luz(Cielo.colorArriba(indice)) + Colores.luz(Cielo.colorAbajo(indice)));
+    }
+
+    /**
+     * Entry of the {@link Cielo} table the sky layer was last painted with.
+     */
+    public int getIndiceCielo() {
+        return mIndiceCielo;
+    }
+
+    /**
+     * Where the sun or the moon was when the sky layer was last painted, or null before that.
+     */
+    public Situacion getSituacion() {
+        return mSituacion;
+    }
+
+    /**
+     * Paints the date and the time. The layer has to be transparent already.
+     */
+    public void pintarTexto(FaceGraphics g, Calendar ahora) {
+        efemerides(ahora.getTimeZone());
+
+        //genero las cadenas para la fecha
+        Date fecha = ahora.getTime();
+        String sDiaMes = fDiaMes.format(fecha);
+        String sDiaSemana = fDiaSemana.format(fecha);
+        String hours = String.format(Locale.getDefault(), "%02d", ahora.get(Calendar.HOUR_OF_DAY));
+        String minutes = String.format(Locale.getDefault(), "%02d", ahora.get(Calendar.MINUTE));
+
+        // primero el borde negro y despues el relleno blanco
+        escribir(g, sDiaMes, sDiaSemana, hours, minutes, true, Colores.BLACK);
+        escribir(g, sDiaMes, sDiaSemana, hours, minutes, false,
+                Colores.escalar(Colores.WHITE, Math.max(BRILLO_MINIMO_TEXTO, mBrillo)));
+    }
+
+    /**
+     * Measures the layers just painted, as not premultiplied ARGB pixels of
+     * {@link FaceLayout#TAMANO} x {@link FaceLayout#TAMANO}. Only the round part of the face
+     * counts. Returns true if they went over the OLED budget: the brightness was lowered and the
+     * backend has to paint them again, at most {@link #MAX_REPINTADOS} times.
+     */
+    public boolean medirCapas(int[] cielo, int[] texto) {
+        int lado = FaceLayout.TAMANO;
+        double radio = lado / 2.0;
+        long sumaCielo = 0;
+        long sumaTexto = 0;
+        long suma = 0;
+        long pixeles = 0;
+        for (int y = 0; y < lado; y++) {
+            // solo la parte redonda de la cara, de x0 a x1
+            double dy = y + 0.5 - radio;
+            double ancho = Math.sqrt(radio * radio - dy * dy);
+            int x0 = (int) Math.ceil(radio - ancho - 0.5);
+            int x1 = (int) Math.floor(radio + ancho - 0.5);
+            for (int i = y * lado + x0, fin = y * lado + x1; i <= fin; i++) {
+                long luzCielo = Colores.luz(cielo[i]);
+                long luzTexto = Colores.luz(texto[i]);
+                sumaCielo += luzCielo;
+                sumaTexto += luzTexto;
+                // el texto va encima del cielo y lo tapa segun su alpha
+                suma += luzTexto + luzCielo * (255 - Colores.alpha(texto[i])) / 255;
+            }
+            pixeles += x1 - x0 + 1;
+        }
+        double maximo = (double) Colores.LUZ_MAXIMA * pixeles;
+        mEncendidoCielo = sumaCielo / maximo;
+        mEncendidoTexto = sumaTexto / maximo;
+        mEncendido = suma / maximo;
+        return ajustarBrillo();
+    }
+
+    private boolean ajustarBrillo() {
+        float presupuesto = mConfig.getPresupuestoOled();
+        if (presupuesto >= FaceConfig.SIN_PRESUPUESTO || mEncendido <= 0) {
+            return false;
+        }
+        double objetivo = presupuesto * HOLGURA;
+        float brillo = estimarBrillo(objetivo);
+        mBrilloAnterior = mBrillo;
+        mEncendidoAnterior = mEncendido;
+        if (mEncendido > presupuesto) {
+            brillo = Math.max(BRILLO_MINIMO, brillo);
+            if (brillo < mBrillo) {
+                mBrillo = brillo;
+                mBrilloPendiente = -1;
+                mCambioCielo = mTiempoCapas;
+                return true;
+            }
+        } else if (mBrillo < 1 && mEncendido < objetivo * HOLGURA) {
+            // subir no apura, espera al proximo cambio del cielo
+            mBrilloPendiente = Math.min(1, brillo);
+        } else {
+            mBrilloPendiente = -1;
+        }
+        return false;
+    }
+
+    /**
+     * Brightness that should leave the face lit {@code objetivo}. The sun, the stars and the text
+     * don't dim with the sky, so the light isn't proportional to the brightness: after a repaint
+     * the line through this build's last two measures is used instead.
+     */
+    private float estimarBrillo(double objetivo) {
+        if (mBrilloAnterior >= 0 && mBrilloAnterior != mBrillo) {
+            double pendiente = (mEncendido - mEncendidoAnterior) / (mBrillo - mBrilloAnterior);
+            if (pendiente > 0) {
+                return (float) (mBrillo + (objetivo - mEncendido) / pendiente);
+            }
+        }
+        return (float) (mBrillo * objetivo / mEncendido);
+    }
+
+    /**
+     * Average light of the whole face as last measured, from 0 (black) to 1 (every pixel white),
+     * or -1 before the first measure.
+     */
+    public double getEncendido() {
+        return mEncendido;
+    }
+
+    public double getEncendidoCielo() {
+        return mEncendidoCielo;
+    }
+
+    public double getEncendidoTexto() {
+        return mEncendidoTexto;
+    }
+
+    /**
+     * What the sky is multiplied by to stay under the budget, 1 without one.
+     */
+    public float getBrillo() {
+        return mBrillo;
+    }
+
+    private Efemerides efemerides(TimeZone zona) {
+        if (mEfemerides == null || !mEfemerides.getZona().getID().equals(zona.getID())) {
+            mEfemerides = new Efemerides(mConfig, zona);
+            fDiaMes.setTimeZone(zona);
+            fDiaSemana.setTimeZone(zona);
+        }
+        return mEfemerides;
+    }
+
+    private void dia(FaceGraphics g, double porcentaje) {
+        astro(g, FaceGraphics.Sprite.SOL, porcentaje);
+    }
+
+    private void noche(FaceGraphics g, double porcentaje, Calendar ahora) {
+        CampoEstrellas estrellas = estrellas(ahora);
+        if (mConfig.isRotarEstrellas()) {
+            // mirando al polo, el cielo gira en sentido horario en el sur y antihorario en el norte
+            double sidereo = Cielo.tiempoSidereo(mConfig.getLongitud(), ahora.getTimeInMillis());
+            float grados = (float) (mConfig.getLatitud() < 0 ? sidereo : -sidereo);
+            g.drawStarfield(estrellas, FaceLayout.PIVOTE_X, poloY(), grados);
+        } else {
+            g.drawStarfield(estrellas, FaceLayout.TAMANO / 2, FaceLayout.TAMANO / 2, 0);
+        }
+        astro(g, FaceGraphics.Sprite.LUNA, porcentaje);
+    }
+
+    /**
+     * The stars of the night {@code ahora} belongs to. A night keeps the date it started on, so
+     * the field only changes once, in the evening.
+     */
+    private CampoEstrellas estrellas(Calendar ahora) {
+        mNoche.setTimeZone(ahora.getTimeZone());
+        mNoche.setTimeInMillis(ahora.getTimeInMillis() - 12 * 60 * 60 * 1000);
+        int noche = mNoche.get(Calendar.YEAR) * 10000 + (mNoche.get(Calendar.MONTH) + 1) * 100
+                + mNoche.get(Calendar.DAY_OF_MONTH);
+        long semilla = CampoEstrellas.semilla(noche, mConfig.getLatitud(), mConfig.getLongitud());
+        if (mEstrellas == null || mEstrellas.getSemilla() != semilla) {
+            mEstrellas = CampoEstrellas.generar(semilla, ladoEstrellas());
+        }
+        return mEstrellas;
+    }
+
+    /**
+     * The celestial pole is as high over the horizon as we are far from the equator. The
+     * horizon is at the height of the sun's pivot.
+     */
+    private float poloY() {
+        return (float) (FaceLayout.PIVOTE_Y - Math.abs(mConfig.getLatitud()) / 90 * FaceLayout.PIVOTE_Y);
+    }
+
+    /**
+     * Side of the star field: just the face when it doesn't turn, or enough to cover every
+     * corner of the face while it turns around the pole.
+     */
+    private int ladoEstrellas() {
+        if (!mConfig.isRotarEstrellas()) {
+            return FaceLayout.TAMANO;
+        }
+        float dx = Math.max(FaceLayout.PIVOTE_X, FaceLayout.TAMANO - FaceLayout.PIVOTE_X);
+        float dy = Math.max(poloY(), FaceLayout.TAMANO - poloY());
+        return 2 * (int) Math.ceil(Math.sqrt(dx * dx + dy * dy));
+    }
+
+    private void astro(FaceGraphics g, FaceGraphics.Sprite sprite, double porcentaje) {
+        g.drawSprite(sprite, FaceLayout.ASTRO_X, FaceLayout.ASTRO_Y,
+                FaceLayout.angulo(porcentaje), FaceLayout.PIVOTE_X, FaceLayout.PIVOTE_Y,
+                mConfig.isInterpolarAstros());
+    }
+
+    private void escribir(FaceGraphics g, String sDiaMes, String sDiaSemana, String hours, String minutes,
+                          boolean borde, int color) {
+        FaceGraphics.Fuente fecha = FaceGraphics.Fuente.SANS_SERIF;
+        float dateSize = mLayout.getDateSize();
+
+        // escribo alrededor la fecha
+        g.drawTextOnArc(sDiaMes, 0, 0, FaceLayout.TAMANO, FaceLayout.TAMANO,
+                FaceLayout.ARCO_SUPERIOR_INICIO, FaceLayout.ARCO_SUPERIOR_BARRIDO,
+                FaceLayout.LARGO_ARCO - g.measureText(sDiaMes, fecha, dateSize) - 53, 30,
+                fecha, dateSize, color, borde);
+        g.drawTextOnArc(sDiaSemana, 0, 0, FaceLayout.TAMANO, FaceLayout.TAMANO,
+                FaceLayout.ARCO_INFERIOR_INICIO, FaceLayout.ARCO_INFERIOR_BARRIDO,
+                FaceLayout.LARGO_ARCO - g.measureText(sDiaSemana, fecha, dateSize), -13,
+                fecha, dateSize, color, borde);
+
+        // escribo la hora y el titileo del ..
+        float hX = mLayout.getHoursX();
+        float hY = mLayout.getHoursY();
+        g.drawText(hours, hX, hY, FaceLayout.INCLINACION_HORA, hX, hY,
+                FaceGraphics.Fuente.SERIF, mLayout.getHourSize(), color, borde);
+        g.drawText(minutes, mLayout.getMinutesX() - 15, mLayout.getMinutesY() - 15,
+                FaceLayout.INCLINACION_HORA, hX, hY,
+                FaceGraphics.Fuente.SERIF, mLayout.getHourSize(), color, borde);
+    }
+}
@@ -0,0 +1,68 @@
+package pablogventura.fugit.face;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * The time keeping of the watch face engine, out of the engine so it can run on any JVM. It
+ * reads a {@link FaceClock} into one reused {@link Calendar}, notices time zone changes and says
+ * when the next wakeup has to be.
+ * <p>
+ * Every wakeup starts with {@link #despertar}, on the watch and in YearSimulator alike.
+ */
+public class FaceTicker {
+    private final FaceClock mClock;
+    private final Calendar mAhora;
+    private boolean mCambioZona;
+
+    public FaceTicker(FaceClock clock) {
+        mClock = clock;
+        mAhora = Calendar.getInstance(clock.getTimeZone());
+    }
+
+    public FaceClock getClock() {
+        return mClock;
+    }
+
+    /**
+     * Brings the calendar to the clock's time and zone and returns it. The same calendar is
+     * returned every time, so don't keep it between frames.
+     */
+    public Calendar ahora() {
+        TimeZone zona = mClock.getTimeZone();
+        mCambioZona = !zona.getID().equals(mAhora.getTimeZone().getID());
+        if (mCambioZona) {
+            mAhora.setTimeZone(zona);
+        }
+        mAhora.setTimeInMillis(mClock.currentTimeMillis());
+        return mAhora;
+    }
+
+    /**
+     * The first step of every wakeup: reads the clock and, if the time zone changed, throws
+     * away the painter's layers. Returns the same calendar as {@link #ahora}.
+     */
+    public Calendar despertar(FacePainter painter) {
+        Calendar ahora = ahora();
+        if (mCambioZona) {
+            painter.invalidateLayers();
+        }
+        return ahora;
+    }
+
+    /**
+     * Whether the last {@link #ahora} found a different time zone. The cached layers show the
+     * old local time then, so they have to be thrown away.
+     */
+    public boolean cambioZona() {
+        return mCambioZona;
+    }
+
+    /**
+     * Milliseconds from now to the next multiple of {@code periodo}, so the ticks fall on whole
+     * seconds or minutes.
+     */
+    public long demora(long periodo) {
+        return periodo - (mClock.currentTimeMillis() % periodo);
+    }
+}
@@ -0,0 +1,71 @@
+package pablogventura.fugit.face;
+
+/**
+ * Lets through at most one value every {@code intervalo} milliseconds. What arrives in between
+ * waits, and only the newest one is kept. It has no timer of its own: {@link #recibir} tells
+ * the caller how long to wait before calling {@link #aplicarPendiente}.
+ * <p>
+ * Times can come from any monotonic clock, they are only compared with each other.
+ */
+public class Limitador<T> {
+    private final long mIntervalo;
+
+    private T mActual;
+    private T mPendiente;
+    private boolean mNuevo;
+    private long mUltimaActualizacion;
+    private boolean mEsperando;
+
+    public Limitador(long intervalo) {
+        mIntervalo = intervalo;
+    }
+
+    /**
+     * Takes a new value, never null. Returns 0 if it was applied right away, or how many
+     * milliseconds it has to wait; then the caller has to call {@link #aplicarPendiente} after
+     * that time. If it is already waiting it returns -1 and nothing has to be scheduled.
+     */
+    public long recibir(T valor, long ahora) {
+        long espera = mUltimaActualizacion + mIntervalo - ahora;
+        if (!mEsperando && (mActual == null || espera <= 0)) {
+            aplicar(valor, ahora);
+            return 0;
+        }
+        mPendiente = valor;
+        if (mEsperando) {
+            return -1;
+        }
+        mEsperando = true;
+        return Math.max(espera, 1);
+    }
+
+    public void aplicarPendiente(long ahora) {
+        mEsperando = false;
+        if (mPendiente != null) {
+            aplicar(mPendiente, ahora);
+            mPendiente = null;
+        }
+    }
+
+    private void aplicar(T valor, long ahora) {
+        mActual = valor;
+        mNuevo = true;
+        mUltimaActualizacion = ahora;
+    }
+
+    /**
+     * The value applied last, or null if nothing arrived yet.
+     */
+    public T getActual() {
+        return mActual;
+    }
+
+    /**
+     * Returns true once after each value applied, so the caller notices it changed.
+     */
+    public boolean tomarNuevo() {
+        boolean nuevo = mNuevo;
+        mNuevo = false;
+        return nuevo;
+    }
+}
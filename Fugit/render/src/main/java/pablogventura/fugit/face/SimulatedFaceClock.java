@@ -0,0 +1,38 @@
+package pablogventura.fugit.face;
+
+import java.util.TimeZone;
+
+/**
+ * A {@link FaceClock} that only moves when it's told to.
+ */
+public class SimulatedFaceClock implements FaceClock {
+    private long mMillis;
+    private TimeZone mZona;
+
+    public SimulatedFaceClock(long millis, TimeZone zona) {
+        mMillis = millis;
+        mZona = zona;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return mMillis;
+    }
+
+    @Override
+    public TimeZone getTimeZone() {
+        return mZona;
+    }
+
+    public void setMillis(long millis) {
+        mMillis = millis;
+    }
+
+    public void avanzar(long millis) {
+        mMillis += millis;
+    }
+
+    public void setTimeZone(TimeZone zona) {
+        mZona = zona;
+    }
+}
@@ -0,0 +1,23 @@
+package pablogventura.fugit.face;
+
+/**
+ * Where we are between sunrise and sunset (or sunset and sunrise): whether it's day and how much
+ * of the current day or night has gone by, from 0 to 1.
+ */
+public class Situacion {
+    private final boolean mDeDia;
+    private final double mPorcentaje;
+
+    public Situacion(boolean deDia, double porcentaje) {
+        mDeDia = deDia;
+        mPorcentaje = porcentaje;
+    }
+
+    public boolean esDeDia() {
+        return mDeDia;
+    }
+
+    public double getPorcentaje() {
+        return mPorcentaje;
+    }
+}
@@ -0,0 +1,45 @@
+package pablogventura.fugit.face;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AtlasRotacionesTest {
+    private static final FaceGraphics.Sprite SOL = FaceGraphics.Sprite.SOL;
+
+    @Test
+    public void seLlenaUnaSolaVez() throws Exception {
+        AtlasRotaciones atlas = new AtlasRotaciones(50, 50);
+        int celda = atlas.buscar(SOL, 10);
+        assertTrue(celda < 0);
+        assertEquals(-celda - 1, atlas.buscar(SOL, 10));
+    }
+
+    @Test
+    public void cadaSpriteTieneSuFila() throws Exception {
+        AtlasRotaciones atlas = new AtlasRotaciones(50, 50);
+        atlas.buscar(SOL, 10);
+        assertTrue(atlas.buscar(FaceGraphics.Sprite.LUNA, 10) < 0);
+    }
+
+    @Test
+    public void guardaLosPasosCercanos() throws Exception {
+        AtlasRotaciones atlas = new AtlasRotaciones(50, 50);
+        // un dia entero de pasos, el atlas nunca crece
+        for (int paso = -150; paso <= 0; paso++) {
+            atlas.buscar(SOL, paso);
+        }
+        for (int paso = 1 - AtlasRotaciones.CELDAS; paso <= 0; paso++) {
+            assertTrue("paso " + paso, atlas.buscar(SOL, paso) >= 0);
+        }
+        assertTrue(atlas.buscar(SOL, -AtlasRotaciones.CELDAS) < 0);
+    }
+
+    @Test
+    public void elCentroGiraAlrededorDelPivote() throws Exception {
+        int paso = AtlasRotaciones.paso(90);
+        // un punto arriba del pivote queda a su derecha
+        assertEquals(110, AtlasRotaciones.centroX(10, 0, paso, 10, 100), 1e-3);
+        assertEquals(100, AtlasRotaciones.centroY(10, 0, paso, 10, 100), 1e-3);
+    }
+}
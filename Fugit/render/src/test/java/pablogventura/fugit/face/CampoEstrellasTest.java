@@ -0,0 +1,49 @@
+package pablogventura.fugit.face;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CampoEstrellasTest {
+    private static final long NOCHE = CampoEstrellas.semilla(20171025,
+            FaceConfig.LATITUD_DEFAULT, FaceConfig.LONGITUD_DEFAULT);
+
+    @Test
+    public void mismaNocheMismoCielo() throws Exception {
+        CampoEstrellas una = CampoEstrellas.generar(NOCHE, FaceLayout.TAMANO);
+        CampoEstrellas otra = CampoEstrellas.generar(NOCHE, FaceLayout.TAMANO);
+        assertEquals(una.getCantidad(), otra.getCantidad());
+        for (int i = 0; i < una.getCantidad(); i++) {
+            assertEquals(una.getX(i), otra.getX(i), 0);
+            assertEquals(una.getY(i), otra.getY(i), 0);
+            assertEquals(una.getRadio(i), otra.getRadio(i), 0);
+            assertEquals(una.getColor(i), otra.getColor(i));
+        }
+    }
+
+    @Test
+    public void otraNocheOtroCielo() throws Exception {
+        long manana = CampoEstrellas.semilla(20171026, FaceConfig.LATITUD_DEFAULT, FaceConfig.LONGITUD_DEFAULT);
+        assertNotEquals(NOCHE, manana);
+        CampoEstrellas hoy = CampoEstrellas.generar(NOCHE, FaceLayout.TAMANO);
+        CampoEstrellas otra = CampoEstrellas.generar(manana, FaceLayout.TAMANO);
+        assertNotEquals(hoy.getX(0), otra.getX(0), 0);
+    }
+
+    @Test
+    public void mismaCiudadMismoCielo() throws Exception {
+        // a few hundred meters away is still the same sky
+        assertEquals(NOCHE, CampoEstrellas.semilla(20171025,
+                FaceConfig.LATITUD_DEFAULT + 0.001, FaceConfig.LONGITUD_DEFAULT - 0.001));
+    }
+
+    @Test
+    public void estrellasDentroDelCampo() throws Exception {
+        CampoEstrellas campo = CampoEstrellas.generar(NOCHE, 500);
+        assertTrue(campo.getCantidad() > 0);
+        for (int i = 0; i < campo.getCantidad(); i++) {
+            assertTrue(campo.getX(i) >= 0 && campo.getX(i) < 500);
+            assertTrue(campo.getY(i) >= 0 && campo.getY(i) < 500);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package pablogventura.fugit.face;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class CieloTest {
+    private static final TimeZone CORDOBA = TimeZone.getTimeZone("America/Argentina/Cordoba");
+
+    private static long fecha(int anio, int mes, int dia, int hora, int minuto) {
+        Calendar fecha = Calendar.getInstance(CORDOBA);
+        fecha.clear();
+        fecha.set(anio, mes, dia, hora, minuto);
+        return fecha.getTimeInMillis();
+    }
+
+    private static double elevacion(long millis) {
+        return Cielo.elevacionSolar(FaceConfig.LATITUD_DEFAULT, FaceConfig.LONGITUD_DEFAULT, millis);
+    }
+
+    @Test
+    public void mediodiaDeVeranoEnCordoba() throws Exception {
+        // 2017-01-01 the sun culminates at about 81.5° around 13:20 local time
+        long dia = fecha(2017, Calendar.JANUARY, 1, 0, 0);
+        long mediodia = dia;
+        for (long t = dia; t < dia + 24 * 3600000L; t += 60000) {
+            if (elevacion(t) > elevacion(mediodia)) {
+                mediodia = t;
+            }
+        }
+        assertEquals(81.5, elevacion(mediodia), 0.2);
+        assertEquals(fecha(2017, Calendar.JANUARY, 1, 13, 20), mediodia, 5 * 60000);
+    }
+
+    @Test
+    public void medianocheDeVeranoEnCordoba() throws Exception {
+        // lower culmination: |latitude| + |declination| - 90
+        assertEquals(-35.6, elevacion(fecha(2017, Calendar.JANUARY, 1, 1, 20)), 0.5);
+    }
+
+    @Test
+    public void indiceCubreTodaLaTabla() throws Exception {
+        assertEquals(0, Cielo.indice(-90));
+        assertEquals(Cielo.TAMANO_LUT - 1, Cielo.indice(90));
+        assertEquals(0, Cielo.indice(-200));
+        for (int i = 0; i < Cielo.TAMANO_LUT; i++) {
+            assertEquals(i, Cielo.indice(Cielo.elevacion(i)));
+        }
+    }
+
+    @Test
+    public void soloCambiaEnElCrepusculo() throws Exception {
+        assertEquals(Cielo.colorArriba(Cielo.indice(-90)), Cielo.colorArriba(Cielo.indice(-30)));
+        assertEquals(Cielo.colorAbajo(Cielo.indice(-90)), Cielo.colorAbajo(Cielo.indice(-30)));
+        assertEquals(Cielo.colorArriba(Cielo.indice(90)), Cielo.colorArriba(Cielo.indice(30)));
+        assertNotEquals(Cielo.colorAbajo(Cielo.indice(-6)), Cielo.colorAbajo(Cielo.indice(0)));
+    }
+}
@@ -0,0 +1,67 @@
+package pablogventura.fugit.face;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class EfemeridesTest {
+    private static final TimeZone CORDOBA = TimeZone.getTimeZone("America/Argentina/Cordoba");
+
+    private static Calendar fecha(TimeZone zona, int anio, int mes, int dia, int hora, int minuto) {
+        Calendar fecha = Calendar.getInstance(zona);
+        fecha.clear();
+        fecha.set(anio, mes, dia, hora, minuto);
+        return fecha;
+    }
+
+    private static void enRango(Situacion situacion) {
+        assertTrue("fraction " + situacion.getPorcentaje(),
+                situacion.getPorcentaje() >= 0 && situacion.getPorcentaje() <= 1);
+    }
+
+    @Test
+    public void justoAlAmanecerEsDeDia() throws Exception {
+        // 2017-01-01 civil sunrise in Cordoba is 05:48, the calculator rounds it to the minute
+        Efemerides efemerides = new Efemerides(new FaceConfig(), CORDOBA);
+        Situacion situacion = efemerides.situacion(fecha(CORDOBA, 2017, Calendar.JANUARY, 1, 5, 48));
+        assertTrue(situacion.esDeDia());
+        assertEquals(0, situacion.getPorcentaje(), 0);
+    }
+
+    @Test
+    public void antesDelAmanecerSigueLaNocheDeAyer() throws Exception {
+        Efemerides efemerides = new Efemerides(new FaceConfig(), CORDOBA);
+        Situacion madrugada = efemerides.situacion(fecha(CORDOBA, 2017, Calendar.JANUARY, 2, 3, 0));
+        Situacion anoche = efemerides.situacion(fecha(CORDOBA, 2017, Calendar.JANUARY, 1, 23, 0));
+        assertFalse(madrugada.esDeDia());
+        assertFalse(anoche.esDeDia());
+        enRango(madrugada);
+        assertTrue(madrugada.getPorcentaje() > anoche.getPorcentaje());
+    }
+
+    @Test
+    public void nochePolar() throws Exception {
+        TimeZone zona = TimeZone.getTimeZone("Antarctica/McMurdo");
+        FaceConfig config = new FaceConfig.Builder().setUbicacion(-77.85, 166.67).build();
+        Efemerides efemerides = new Efemerides(config, zona);
+        Situacion situacion = efemerides.situacion(fecha(zona, 2017, Calendar.JUNE, 21, 12, 0));
+        assertFalse(situacion.esDeDia());
+        assertEquals(0.5, situacion.getPorcentaje(), 0.01);
+    }
+
+    @Test
+    public void cambioDeHora() throws Exception {
+        // Europe/Berlin moves to summer time at 02:00 on 2017-03-26
+        TimeZone zona = TimeZone.getTimeZone("Europe/Berlin");
+        FaceConfig config = new FaceConfig.Builder().setUbicacion(52.52, 13.405).build();
+        Efemerides efemerides = new Efemerides(config, zona);
+        Calendar ahora = fecha(zona, 2017, Calendar.MARCH, 26, 0, 0);
+        for (int i = 0; i < 24 * 60; i++) {
+            enRango(efemerides.situacion(ahora));
+            ahora.add(Calendar.MINUTE, 1);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package pablogventura.fugit.face;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FaceLayoutTest {
+    private static final float CENTRO_ASTRO_X = FaceLayout.ASTRO_X + FaceLayout.LADO_ASTRO / 2;
+    private static final float CENTRO_ASTRO_Y = FaceLayout.ASTRO_Y + FaceLayout.LADO_ASTRO / 2;
+
+    private static double distancia(float x1, float y1, float x2, float y2) {
+        return Math.hypot(x1 - x2, y1 - y2);
+    }
+
+    @Test
+    public void elSolNoPisaLasComplicaciones() throws Exception {
+        double minima = FaceLayout.RADIO_COMPLICACION + FaceLayout.LADO_ASTRO / 2;
+        for (int cantidad = 1; cantidad <= FaceConfig.MAX_COMPLICACIONES; cantidad++) {
+            for (int i = 0; i < cantidad; i++) {
+                float x = FaceLayout.complicacionX(i, cantidad);
+                float y = FaceLayout.complicacionY(i, cantidad);
+                // los mismos pasos en los que los backends dibujan el sol y la luna
+                for (int paso = AtlasRotaciones.paso(FaceLayout.angulo(0));
+                     paso <= AtlasRotaciones.paso(FaceLayout.angulo(1)); paso++) {
+                    float astroX = AtlasRotaciones.centroX(CENTRO_ASTRO_X, CENTRO_ASTRO_Y, paso,
+                            FaceLayout.PIVOTE_X, FaceLayout.PIVOTE_Y);
+                    float astroY = AtlasRotaciones.centroY(CENTRO_ASTRO_X, CENTRO_ASTRO_Y, paso,
+                            FaceLayout.PIVOTE_X, FaceLayout.PIVOTE_Y);
+                    assertTrue(i + "/" + cantidad + " a " + AtlasRotaciones.grados(paso) + "°",
+                            distancia(x, y, astroX, astroY) >= minima);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void lasComplicacionesNoSeTocanEntreSi() throws Exception {
+        for (int cantidad = 2; cantidad <= FaceConfig.MAX_COMPLICACIONES; cantidad++) {
+            for (int i = 1; i < cantidad; i++) {
+                double d = distancia(FaceLayout.complicacionX(i, cantidad), FaceLayout.complicacionY(i, cantidad),
+                        FaceLayout.complicacionX(i - 1, cantidad), FaceLayout.complicacionY(i - 1, cantidad));
+                assertTrue(i + "/" + cantidad, d >= 2 * FaceLayout.RADIO_COMPLICACION);
+            }
+        }
+    }
+
+    @Test
+    public void lasComplicacionesEntranEnLaCara() throws Exception {
+        float centro = FaceLayout.TAMANO / 2;
+        for (int cantidad = 1; cantidad <= FaceConfig.MAX_COMPLICACIONES; cantidad++) {
+            for (int i = 0; i < cantidad; i++) {
+                double d = distancia(FaceLayout.complicacionX(i, cantidad), FaceLayout.complicacionY(i, cantidad),
+                        centro, centro);
+                assertTrue(i + "/" + cantidad, d + FaceLayout.RADIO_COMPLICACION <= centro);
+            }
+        }
+    }
+}
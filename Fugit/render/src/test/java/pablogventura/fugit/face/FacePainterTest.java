@@ -0,0 +1,52 @@
+package pablogventura.fugit.face;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class FacePainterTest {
+    private static final int PIXELES = FaceLayout.TAMANO * FaceLayout.TAMANO;
+
+    private static int[] capa(int color) {
+        int[] pixeles = new int[PIXELES];
+        Arrays.fill(pixeles, color);
+        return pixeles;
+    }
+
+    private static FacePainter painter(float presupuesto) {
+        FacePainter painter = new FacePainter(FaceLayout.conDensidad(FaceLayout.DENSIDAD_MOTO_360));
+        painter.setConfig(new FaceConfig.Builder().setPresupuestoOled(presupuesto).build());
+        return painter;
+    }
+
+    @Test
+    public void cieloBlancoEstaTodoEncendido() throws Exception {
+        FacePainter painter = painter(FaceConfig.SIN_PRESUPUESTO);
+        assertFalse(painter.medirCapas(capa(Colores.WHITE), capa(Colores.TRANSPARENT)));
+        assertEquals(1, painter.getEncendido(), 1e-9);
+        assertEquals(1, painter.getEncendidoCielo(), 1e-9);
+        assertEquals(0, painter.getEncendidoTexto(), 1e-9);
+    }
+
+    @Test
+    public void elTextoTapaElCielo() throws Exception {
+        FacePainter painter = painter(FaceConfig.SIN_PRESUPUESTO);
+        painter.medirCapas(capa(Colores.WHITE), capa(Colores.BLACK));
+        assertEquals(0, painter.getEncendido(), 1e-9);
+        painter.medirCapas(capa(Colores.BLACK), capa(Colores.argb(128, 255, 255, 255)));
+        assertEquals(128 / 255.0, painter.getEncendido(), 1e-9);
+    }
+
+    @Test
+    public void sobreElPresupuestoBajaElBrillo() throws Exception {
+        FacePainter painter = painter(0.2f);
+        assertTrue(painter.medirCapas(capa(Colores.WHITE), capa(Colores.TRANSPARENT)));
+        assertTrue(painter.getBrillo() < 0.2f);
+        // ya por debajo no hace falta repintar, y tampoco sube mientras este cerca
+        float brillo = painter.getBrillo();
+        assertFalse(painter.medirCapas(capa(Colores.escalar(Colores.WHITE, brillo)), capa(Colores.TRANSPARENT)));
+        assertEquals(brillo, painter.getBrillo(), 0.01f);
+    }
+}
@@ -0,0 +1,79 @@
+package pablogventura.fugit.face;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class FaceTickerTest {
+    private static final TimeZone CORDOBA = TimeZone.getTimeZone("America/Argentina/Cordoba");
+    private static final TimeZone MADRID = TimeZone.getTimeZone("Europe/Madrid");
+
+    /**
+     * 2017-01-01 12:00 UTC.
+     */
+    private static final long MEDIODIA_UTC = 1483272000000L;
+
+    @Test
+    public void ahoraSigueAlReloj() throws Exception {
+        SimulatedFaceClock reloj = new SimulatedFaceClock(MEDIODIA_UTC, CORDOBA);
+        FaceTicker ticker = new FaceTicker(reloj);
+        Calendar ahora = ticker.ahora();
+        assertEquals(MEDIODIA_UTC, ahora.getTimeInMillis());
+        assertEquals(9, ahora.get(Calendar.HOUR_OF_DAY));
+
+        reloj.avanzar(90 * 60000);
+        assertSame(ahora, ticker.ahora());
+        assertEquals(10, ahora.get(Calendar.HOUR_OF_DAY));
+        assertEquals(30, ahora.get(Calendar.MINUTE));
+    }
+
+    @Test
+    public void cambioZonaSoloUnaVez() throws Exception {
+        SimulatedFaceClock reloj = new SimulatedFaceClock(MEDIODIA_UTC, CORDOBA);
+        FaceTicker ticker = new FaceTicker(reloj);
+        ticker.ahora();
+        assertFalse(ticker.cambioZona());
+
+        reloj.setTimeZone(MADRID);
+        Calendar ahora = ticker.ahora();
+        assertTrue(ticker.cambioZona());
+        assertEquals(13, ahora.get(Calendar.HOUR_OF_DAY));
+        ticker.ahora();
+        assertFalse(ticker.cambioZona());
+
+        // otra instancia de la misma zona no es un cambio
+        reloj.setTimeZone(TimeZone.getTimeZone(MADRID.getID()));
+        ticker.ahora();
+        assertFalse(ticker.cambioZona());
+    }
+
+    @Test
+    public void despertarTiraLasCapasSiCambiaLaZona() throws Exception {
+        SimulatedFaceClock reloj = new SimulatedFaceClock(MEDIODIA_UTC, CORDOBA);
+        FaceTicker ticker = new FaceTicker(reloj);
+        FacePainter painter = new FacePainter(FaceLayout.conDensidad(1));
+        Calendar ahora = ticker.despertar(painter);
+        painter.marcarCapas(ahora);
+        assertFalse(painter.necesitaCapas(ticker.despertar(painter)));
+
+        reloj.setTimeZone(MADRID);
+        assertSame(ahora, ticker.despertar(painter));
+        assertTrue(painter.necesitaCapas(ahora));
+    }
+
+    @Test
+    public void demoraCaeEnElPeriodo() throws Exception {
+        SimulatedFaceClock reloj = new SimulatedFaceClock(MEDIODIA_UTC + 1500, CORDOBA);
+        FaceTicker ticker = new FaceTicker(reloj);
+        assertEquals(500, ticker.demora(1000));
+        assertEquals(58500, ticker.demora(60000));
+
+        reloj.avanzar(ticker.demora(1000));
+        assertEquals(0, reloj.currentTimeMillis() % 1000);
+        // justo en el borde espera un periodo entero, nunca cero
+        assertEquals(1000, ticker.demora(1000));
+    }
+}
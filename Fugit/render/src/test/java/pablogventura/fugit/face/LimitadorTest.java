@@ -0,0 +1,72 @@
+package pablogventura.fugit.face;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LimitadorTest {
+    private static final long INTERVALO = 10000;
+
+    @Test
+    public void elPrimeroPasaEnseguida() throws Exception {
+        Limitador<String> limitador = new Limitador<>(INTERVALO);
+        assertNull(limitador.getActual());
+        assertFalse(limitador.tomarNuevo());
+
+        assertEquals(0, limitador.recibir("a", 5));
+        assertEquals("a", limitador.getActual());
+        assertTrue(limitador.tomarNuevo());
+        assertFalse(limitador.tomarNuevo());
+    }
+
+    @Test
+    public void dentroDelIntervaloEspera() throws Exception {
+        Limitador<String> limitador = new Limitador<>(INTERVALO);
+        limitador.recibir("a", 1000);
+        limitador.tomarNuevo();
+
+        assertEquals(6000, limitador.recibir("b", 5000));
+        assertEquals("a", limitador.getActual());
+        assertFalse(limitador.tomarNuevo());
+
+        limitador.aplicarPendiente(11000);
+        assertEquals("b", limitador.getActual());
+        assertTrue(limitador.tomarNuevo());
+    }
+
+    @Test
+    public void mientrasEsperaSoloQuedaElUltimo() throws Exception {
+        Limitador<String> limitador = new Limitador<>(INTERVALO);
+        limitador.recibir("a", 1000);
+        assertEquals(9000, limitador.recibir("b", 2000));
+        assertEquals(-1, limitador.recibir("c", 3000));
+        // aunque ya paso el intervalo, lo que llega tiene que esperar al aviso pendiente
+        assertEquals(-1, limitador.recibir("d", 12000));
+        assertEquals("a", limitador.getActual());
+
+        limitador.aplicarPendiente(12000);
+        assertEquals("d", limitador.getActual());
+        // el intervalo vuelve a contar desde que se aplico
+        assertEquals(INTERVALO, limitador.recibir("e", 12000));
+    }
+
+    @Test
+    public void pasadoElIntervaloPasaEnseguida() throws Exception {
+        Limitador<String> limitador = new Limitador<>(INTERVALO);
+        limitador.recibir("a", 1000);
+        assertEquals(0, limitador.recibir("b", 1000 + INTERVALO));
+        assertEquals("b", limitador.getActual());
+    }
+
+    @Test
+    public void avisoSinPendienteNoCambiaNada() throws Exception {
+        Limitador<String> limitador = new Limitador<>(INTERVALO);
+        limitador.recibir("a", 1000);
+        limitador.tomarNuevo();
+        limitador.aplicarPendiente(20000);
+        assertEquals("a", limitador.getActual());
+        assertFalse(limitador.tomarNuevo());
+        // y no reinicia el intervalo
+        assertEquals(0, limitador.recibir("b", 11000));
+    }
+}
@@ -0,0 +1,259 @@
+package pablogventura.fugit;
+
+import android.app.PendingIntent;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.Icon;
+import android.support.wearable.complications.ComplicationData;
+import android.support.wearable.complications.ComplicationText;
+
+import java.util.concurrent.TimeUnit;
+
+import pablogventura.fugit.face.FaceLayout;
+import pablogventura.fugit.face.Limitador;
+
+/**
+ * One complication on the face. It keeps the last {@link ComplicationData} it got and a small
+ * bitmap with it already drawn, so the face only blits it.
+ * <p>
+ * A provider can send data as often as it likes, but a slot takes at most one update every
+ * {@link #INTERVALO_MINIMO_MS}, see {@link Limitador}. The bitmap is only redrawn when what it
+ * shows really changes.
+ * <p>
+ * Until the user lets the face show complications every slot gets
+ * {@link ComplicationData#TYPE_NO_PERMISSION}; then it shows a placeholder to tap on.
+ */
+class ComplicationSlot {
+    static final long INTERVALO_MINIMO_MS = TimeUnit.SECONDS.toMillis(10);
+
+    private static final int LADO = Math.round(2 * FaceLayout.RADIO_COMPLICACION);
+    private static final float GROSOR_RANGO = 3;
+    private static final float TAMANO_ICONO = 20;
+    private static final float TAMANO_TEXTO = 14;
+    private static final float TAMANO_TITULO = 10;
+
+    private final Context mContext;
+    private final float mX;
+    private final float mY;
+
+    private final Limitador<ComplicationData> mLimitador = new Limitador<>(INTERVALO_MINIMO_MS);
+    private ComplicationData mDatos;
+
+    /**
+     * What the bitmap shows right now, to know if it has to be drawn again.
+     */
+    private String mDibujado;
+    private Drawable mIcono;
+    private final Bitmap mBitmap;
+    private final Canvas mCanvas;
+    private boolean mVisible;
+
+    private final Paint mFondoPaint;
+    private final Paint mRangoPaint;
+    private final Paint mTextoPaint;
+    private final RectF mOvalo;
+
+    ComplicationSlot(Context context, int id, int cantidad) {
+        mContext = context;
+        mX = FaceLayout.complicacionX(id, cantidad) - LADO / 2f;
+        mY = FaceLayout.complicacionY(id, cantidad) - LADO / 2f;
+        mBitmap = Bitmap.createBitmap(LADO, LADO, Bitmap.Config.ARGB_8888);
+        mCanvas = new Canvas(mBitmap);
+
+        mFondoPaint = new Paint();
+        mFondoPaint.setAntiAlias(true);
+        mFondoPaint.setColor(Color.argb(128, 0, 0, 0));
+        mRangoPaint = new Paint();
+        mRangoPaint.setAntiAlias(true);
+        mRangoPaint.setStyle(Paint.Style.STROKE);
+        mRangoPaint.setStrokeWidth(GROSOR_RANGO);
+        mRangoPaint.setStrokeCap(Paint.Cap.ROUND);
+        mRangoPaint.setColor(Color.WHITE);
+        mTextoPaint = new Paint();
+        mTextoPaint.setAntiAlias(true);
+        mTextoPaint.setTypeface(Typeface.SANS_SERIF);
+        mTextoPaint.setTextAlign(Paint.Align.CENTER);
+        mTextoPaint.setColor(Color.WHITE);
+        float borde = GROSOR_RANGO / 2;
+        mOvalo = new RectF(borde, borde, LADO - borde, LADO - borde);
+    }
+
+    /**
+     * Takes new data from the provider, with the same contract as {@link Limitador#recibir}:
+     * after the returned delay the caller has to call {@link #aplicarPendientes}. {@code ahora}
+     * is only used for the throttling, so it can be any monotonic clock.
+     */
+    long recibir(ComplicationData datos, long ahora) {
+        return mLimitador.recibir(datos, ahora);
+    }
+
+    void aplicarPendientes(long ahora) {
+        mLimitador.aplicarPendiente(ahora);
+    }
+
+    /**
+     * Brings the bitmap up to date for the wall clock time {@code ahora}. Time dependent texts
+     * (like "in 5 min") are evaluated again here, so the caller does it when the minute changes.
+     * Returns true if the bitmap changed and the face has to be drawn again.
+     */
+    boolean actualizar(long ahora) {
+        if (mLimitador.tomarNuevo()) {
+            // un Icon no se puede comparar, asi que con datos nuevos se vuelve a cargar
+            mDatos = mLimitador.getActual();
+            mIcono = null;
+        }
+        if (mDatos == null) {
+            return false;
+        }
+        boolean visible = esVisible(ahora);
+        String clave = visible ? clave(ahora) : "";
+        boolean faltaIcono = visible && !sinPermiso() && mIcono == null && mDatos.getIcon() != null;
+        if (visible == mVisible && clave.equals(mDibujado) && !faltaIcono) {
+            return false;
+        }
+        mVisible = visible;
+        mDibujado = clave;
+        if (visible) {
+            dibujar(ahora);
+        }
+        return true;
+    }
+
+    private boolean esVisible(long ahora) {
+        switch (mDatos.getType()) {
+            case ComplicationData.TYPE_SHORT_TEXT:
+            case ComplicationData.TYPE_RANGED_VALUE:
+            case ComplicationData.TYPE_ICON:
+                return mDatos.isActive(ahora);
+            case ComplicationData.TYPE_NO_PERMISSION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Everything the bitmap depends on, as a string.
+     */
+    private String clave(long ahora) {
+        StringBuilder clave = new StringBuilder().append(mDatos.getType());
+        if (sinPermiso()) {
+            return clave.toString();
+        }
+        clave.append('|').append(mDatos.getIcon() != null);
+        if (tieneTexto()) {
+            clave.append('|').append(texto(mDatos.getShortText(), ahora));
+            clave.append('|').append(texto(mDatos.getShortTitle(), ahora));
+        }
+        if (mDatos.getType() == ComplicationData.TYPE_RANGED_VALUE) {
+            clave.append('|').append(Math.round(100 * fraccion()));
+        }
+        return clave.toString();
+    }
+
+    /**
+     * ComplicationData throws if asked for a field its type doesn't have.
+     */
+    private boolean tieneTexto() {
+        return mDatos.getType() != ComplicationData.TYPE_ICON && !sinPermiso();
+    }
+
+    private boolean sinPermiso() {
+        return mDatos.getType() == ComplicationData.TYPE_NO_PERMISSION;
+    }
+
+    private String texto(ComplicationText texto, long ahora) {
+        return texto == null ? null : texto.getText(mContext, ahora).toString();
+    }
+
+    private float fraccion() {
+        float rango = mDatos.getMaxValue() - mDatos.getMinValue();
+        if (rango <= 0) {
+            return 0;
+        }
+        return Math.max(0, Math.min(1, (mDatos.getValue() - mDatos.getMinValue()) / rango));
+    }
+
+    private void dibujar(long ahora) {
+        mBitmap.eraseColor(Color.TRANSPARENT);
+        float centro = LADO / 2f;
+        mCanvas.drawCircle(centro, centro, centro, mFondoPaint);
+        if (mDatos.getType() == ComplicationData.TYPE_RANGED_VALUE) {
+            mCanvas.drawArc(mOvalo, -90, 360 * fraccion(), false, mRangoPaint);
+        }
+        if (sinPermiso()) {
+            // el anillo entero y un texto, para que se vea que hay algo para tocar
+            mCanvas.drawOval(mOvalo, mRangoPaint);
+            escribir(mContext.getString(R.string.complicacion_sin_permiso), TAMANO_TITULO,
+                    centro + TAMANO_TITULO / 3);
+            return;
+        }
+
+        Icon icono = mDatos.getIcon();
+        if (icono != null && mIcono == null) {
+            mIcono = icono.loadDrawable(mContext);
+        }
+        String texto = tieneTexto() ? texto(mDatos.getShortText(), ahora) : null;
+        String titulo = tieneTexto() ? texto(mDatos.getShortTitle(), ahora) : null;
+
+        if (mIcono != null && texto == null) {
+            dibujarIcono(centro - TAMANO_ICONO / 2);
+        } else if (mIcono != null) {
+            dibujarIcono(centro - TAMANO_ICONO + 2);
+            escribir(texto, TAMANO_TEXTO, centro + TAMANO_TEXTO - 2);
+        } else if (texto != null && titulo != null) {
+            escribir(texto, TAMANO_TEXTO, centro + 2);
+            escribir(titulo, TAMANO_TITULO, centro + TAMANO_TITULO + 4);
+        } else if (texto != null) {
+            escribir(texto, TAMANO_TEXTO, centro + TAMANO_TEXTO / 3);
+        }
+    }
+
+    private void dibujarIcono(float top) {
+        int left = Math.round((LADO - TAMANO_ICONO) / 2);
+        int arriba = Math.round(top);
+        mIcono.setBounds(left, arriba, left + Math.round(TAMANO_ICONO), arriba + Math.round(TAMANO_ICONO));
+        mIcono.draw(mCanvas);
+    }
+
+    private void escribir(String texto, float tamano, float y) {
+        mTextoPaint.setTextSize(tamano);
+        mCanvas.drawText(texto, LADO / 2f, y, mTextoPaint);
+    }
+
+    void draw(Canvas canvas) {
+        if (mVisible) {
+            canvas.drawBitmap(mBitmap, mX, mY, null);
+        }
+    }
+
+    /**
+     * Returns true if the point, in face units, falls on this slot.
+     */
+    boolean contiene(int x, int y) {
+        float dx = x - (mX + LADO / 2f);
+        float dy = y - (mY + LADO / 2f);
+        return dx * dx + dy * dy <= FaceLayout.RADIO_COMPLICACION * FaceLayout.RADIO_COMPLICACION;
+    }
+
+    /**
+     * The data currently shown, or null if the provider has not sent anything yet.
+     */
+    ComplicationData getDatos() {
+        return mDatos;
+    }
+
+    PendingIntent getTapAction() {
+        return mDatos == null || !mVisible ? null : mDatos.getTapAction();
+    }
+
+    void liberar() {
+        mBitmap.recycle();
+    }
+}
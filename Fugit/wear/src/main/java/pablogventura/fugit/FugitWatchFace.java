@@ -17,27 +17,23 @@
 package pablogventura.fugit;
 
 import android.app.DownloadManager;
+import android.app.PendingIntent;
 import android.content.BroadcastReceiver;
+import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.content.res.Resources;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.LinearGradient;
-import android.graphics.Paint;
-import android.graphics.Path;
 import android.graphics.Picture;
 import android.graphics.Rect;
-import android.graphics.RectF;
-import android.graphics.Shader;
-import android.graphics.Typeface;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
+import android.os.SystemClock;
 import android.os.Vibrator;
+import android.support.wearable.complications.ComplicationData;
+import android.support.wearable.complications.ComplicationHelperActivity;
+import android.support.wearable.complications.SystemProviders;
 import android.support.wearable.watchface.CanvasWatchFaceService;
 import android.support.wearable.watchface.WatchFaceStyle;
 import android.text.format.Time;
@@ -46,20 +42,27 @@ import android.view.SurfaceHolder;
 import android.view.WindowInsets;
 import android.widget.TextView;
 
-
-import com.luckycatlabs.sunrisesunset.SunriseSunsetCalculator;
-import com.luckycatlabs.sunrisesunset.dto.Location;
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.common.api.ResultCallback;
+import com.google.android.gms.wearable.DataApi;
+import com.google.android.gms.wearable.DataEvent;
+import com.google.android.gms.wearable.DataEventBuffer;
+import com.google.android.gms.wearable.DataItem;
+import com.google.android.gms.wearable.DataItemBuffer;
+import com.google.android.gms.wearable.DataMapItem;
+import com.google.android.gms.wearable.Wearable;
+
+import pablogventura.fugit.face.FaceClock;
+import pablogventura.fugit.face.FaceConfig;
+import pablogventura.fugit.face.FaceConfigData;
+import pablogventura.fugit.face.FaceRenderer;
+import pablogventura.fugit.face.FaceTicker;
 
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
-import java.util.Random;
-import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -79,9 +82,25 @@ public class FugitWatchFace extends CanvasWatchFaceService {
      */
     private static final int MSG_UPDATE_TIME = 0;
 
+    /**
+     * Handler message id for applying the data a complication got while it was throttled. The
+     * slot goes in arg1.
+     */
+    private static final int MSG_UPDATE_COMPLICATION = 1;
+
+    /**
+     * What each slot shows until the user picks something else.
+     */
+    private static final int[][] PROVEEDORES_DEFAULT = {
+            {SystemProviders.WATCH_BATTERY, ComplicationData.TYPE_RANGED_VALUE},
+            {SystemProviders.STEP_COUNT, ComplicationData.TYPE_SHORT_TEXT},
+            {SystemProviders.NEXT_EVENT, ComplicationData.TYPE_SHORT_TEXT},
+            {SystemProviders.WORLD_CLOCK, ComplicationData.TYPE_SHORT_TEXT},
+    };
+
     @Override
     public Engine onCreateEngine() {
-        return new Engine();
+        return new Engine(FaceClock.SISTEMA);
     }
 
     private static class EngineHandler extends Handler {
@@ -99,35 +118,34 @@ public class FugitWatchFace extends CanvasWatchFaceService {
                     case MSG_UPDATE_TIME:
                         engine.handleUpdateTimeMessage();
                         break;
+                    case MSG_UPDATE_COMPLICATION:
+                        engine.handleUpdateComplicationMessage(msg.arg1);
+                        break;
                 }
             }
         }
     }
 
-    private class Engine extends CanvasWatchFaceService.Engine {
+    private class Engine extends CanvasWatchFaceService.Engine implements DataApi.DataListener,
+            GoogleApiClient.ConnectionCallbacks {
         final Handler mUpdateTimeHandler = new EngineHandler(this);
+        /**
+         * The phone sends the face settings as a data item, see {@link FaceConfigData}.
+         */
+        GoogleApiClient mGoogleApiClient;
+        final FaceTicker mTicker;
         boolean mRegisteredTimeZoneReceiver = false;
-        Paint mBackgroundPaint;
-        Paint mHourPaint;
-        Paint mDatePaint;
-        Paint mMeteoPaint;
-        Paint mAstroPaint;
+        FaceRenderer mRenderer;
+        ComplicationSlot[] mSlots;
+        int mMinutoSlots = -1;
         Calendar mTime;
         final BroadcastReceiver mTimeZoneReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(Context context, Intent intent) {
-                mTime = Calendar.getInstance();
+                mRenderer.invalidateLayers();
+                invalidate();
             }
         };
-        int mTapCount;
-
-        float hXOffset;
-        float hYOffset;
-        float mXOffset;
-        float mYOffset;
-
-        SimpleDateFormat fDiaMes;
-        SimpleDateFormat fDiaSemana;
 
         /**
          * Whether the display supports fewer bits for each color in ambient mode. When true, we
@@ -135,6 +153,10 @@ public class FugitWatchFace extends CanvasWatchFaceService {
          */
         boolean mLowBitAmbient;
 
+        Engine(FaceClock clock) {
+            mTicker = new FaceTicker(clock);
+        }
+
         @Override
         public void onCreate(SurfaceHolder holder) {
             super.onCreate(holder);
@@ -145,53 +167,119 @@ public class FugitWatchFace extends CanvasWatchFaceService {
                     .setShowSystemUiTime(false)
                     .setAcceptsTapEvents(true)
                     .build());
-            Resources resources = FugitWatchFace.this.getResources();
-            mYOffset = resources.getDimension(R.dimen.minutes_y_offset);
-            mXOffset = resources.getDimension(R.dimen.minutes_x_offset_round);
-            hYOffset = resources.getDimension(R.dimen.hours_y_offset);
-            hXOffset = resources.getDimension(R.dimen.hours_x_offset_round);
-
-
-            mBackgroundPaint = new Paint();
-            mBackgroundPaint.setColor(resources.getColor(R.color.background));
-
-            mHourPaint = new Paint();
-            mHourPaint = createTextPaint(resources.getColor(R.color.digital_text), resources.getDimension(R.dimen.digital_text_size_round));
-            mHourPaint.setStyle(Paint.Style.FILL);
-            fDiaMes = new SimpleDateFormat("d 'de' MMMM",Locale.getDefault());
-            fDiaSemana = new SimpleDateFormat("EEEE",Locale.getDefault());
-            mDatePaint = new Paint();
-            mDatePaint = createTextPaint(Color.WHITE, resources.getDimension(R.dimen.size_date));
-            mDatePaint.setTypeface(Typeface.SANS_SERIF);
-            mAstroPaint = new Paint();
-            mAstroPaint.setAntiAlias(true);
-
-            mMeteoPaint = createTextPaint(resources.getColor(R.color.digital_text), resources.getDimension(R.dimen.digital_text_size_round));
-            Typeface meteoTF =Typeface.createFromAsset(getAssets(),"fonts/weathericons-regular-webfont.ttf");
-            mMeteoPaint.setTypeface(meteoTF);
+            mRenderer = new FaceRenderer(FugitWatchFace.this);
+            crearSlots(mRenderer.getConfig().getComplicaciones());
+
+            mGoogleApiClient = new GoogleApiClient.Builder(FugitWatchFace.this)
+                    .addApi(Wearable.API)
+                    .addConnectionCallbacks(this)
+                    .build();
+            mGoogleApiClient.connect();
         }
 
         @Override
-        public void onDestroy() {
-            mUpdateTimeHandler.removeMessages(MSG_UPDATE_TIME);
-            super.onDestroy();
+        public void onConnected(Bundle connectionHint) {
+            Wearable.DataApi.addListener(mGoogleApiClient, this);
+            // lo ultimo que mando el telefono, aunque ahora no este conectado
+            Wearable.DataApi.getDataItems(mGoogleApiClient, FaceConfigData.uri())
+                    .setResultCallback(new ResultCallback<DataItemBuffer>() {
+                        @Override
+                        public void onResult(DataItemBuffer items) {
+                            for (DataItem item : items) {
+                                aplicarConfig(item);
+                            }
+                            items.release();
+                        }
+                    });
         }
-        private Paint createTextPaint(int textColor, float textSize) {
-            Paint paint = new Paint();
-            paint.setColor(textColor);
-            paint.setTypeface(Typeface.SERIF);
-            paint.setTextSize(textSize);
-            paint.setAntiAlias(true);
 
+        @Override
+        public void onConnectionSuspended(int cause) {
+            // el cliente se vuelve a conectar solo y el listener sigue registrado
+        }
 
-            paint.setStrokeJoin(Paint.Join.ROUND);
-            paint.setStrokeMiter(10);
+        @Override
+        public void onDataChanged(DataEventBuffer eventos) {
+            for (DataEvent evento : eventos) {
+                if (evento.getType() == DataEvent.TYPE_CHANGED) {
+                    aplicarConfig(evento.getDataItem());
+                }
+            }
+        }
+
+        private void aplicarConfig(DataItem item) {
+            if (!FaceConfigData.PATH.equals(item.getUri().getPath())) {
+                return;
+            }
+            FaceConfig config = FaceConfigData.leer(DataMapItem.fromDataItem(item).getDataMap());
+            mRenderer.setConfig(config);
+            if (config.getComplicaciones() != mSlots.length) {
+                liberarSlots();
+                crearSlots(config.getComplicaciones());
+            }
+            invalidate();
+        }
 
-            paint.setStrokeWidth(3);
+        private void crearSlots(int cantidad) {
+            mSlots = new ComplicationSlot[cantidad];
+            int[] ids = new int[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                mSlots[i] = new ComplicationSlot(FugitWatchFace.this, i, cantidad);
+                ids[i] = i;
+                setDefaultSystemComplicationProvider(i, PROVEEDORES_DEFAULT[i][0], PROVEEDORES_DEFAULT[i][1]);
+            }
+            setActiveComplications(ids);
+        }
+
+        private void liberarSlots() {
+            mUpdateTimeHandler.removeMessages(MSG_UPDATE_COMPLICATION);
+            for (ComplicationSlot slot : mSlots) {
+                slot.liberar();
+            }
+        }
+
+        @Override
+        public void onDestroy() {
+            mUpdateTimeHandler.removeMessages(MSG_UPDATE_TIME);
+            liberarSlots();
+            if (mGoogleApiClient.isConnected()) {
+                Wearable.DataApi.removeListener(mGoogleApiClient, this);
+            }
+            mGoogleApiClient.disconnect();
+            super.onDestroy();
+        }
 
+        /**
+         * Providers can send data very often; each slot takes it at most every
+         * {@link ComplicationSlot#INTERVALO_MINIMO_MS} and the face is only redrawn if the slot
+         * looks different.
+         */
+        @Override
+        public void onComplicationDataUpdate(int complicationId, ComplicationData data) {
+            if (complicationId < 0 || complicationId >= mSlots.length) {
+                return;
+            }
+            ComplicationSlot slot = mSlots[complicationId];
+            long ahora = SystemClock.elapsedRealtime();
+            long espera = slot.recibir(data, ahora);
+            if (espera == 0) {
+                actualizarSlot(slot);
+            } else if (espera > 0) {
+                mUpdateTimeHandler.sendMessageDelayed(
+                        mUpdateTimeHandler.obtainMessage(MSG_UPDATE_COMPLICATION, complicationId, 0), espera);
+            }
+        }
 
+        private void handleUpdateComplicationMessage(int complicationId) {
+            ComplicationSlot slot = mSlots[complicationId];
+            slot.aplicarPendientes(SystemClock.elapsedRealtime());
+            actualizarSlot(slot);
+        }
 
-            return paint;
+        private void actualizarSlot(ComplicationSlot slot) {
+            if (slot.actualizar(mTicker.getClock().currentTimeMillis())) {
+                invalidate();
+            }
         }
 
         @Override
@@ -202,8 +290,7 @@ public class FugitWatchFace extends CanvasWatchFaceService {
                 registerReceiver();
 
                 // Update time zone in case it changed while we weren't visible.
-
-                mTime = Calendar.getInstance();
+                mRenderer.invalidateLayers();
             } else {
                 unregisterReceiver();
             }
@@ -256,12 +343,10 @@ public class FugitWatchFace extends CanvasWatchFaceService {
         }
 
         /**
-         * Captures tap event (and tap type) and toggles the background color if the user finishes
-         * a tap.
+         * Captures tap event (and tap type) and vibrates if the user finishes a tap.
          */
         @Override
         public void onTapCommand(int tapType, int x, int y, long eventTime) {
-            Resources resources = FugitWatchFace.this.getResources();
             switch (tapType) {
                 case TAP_TYPE_TOUCH:
                     // The user has started touching the screen.
@@ -271,9 +356,9 @@ public class FugitWatchFace extends CanvasWatchFaceService {
                     break;
                 case TAP_TYPE_TAP:
                     // The user has completed the tap gesture.
-                    mTapCount++;
-                    mBackgroundPaint.setColor(resources.getColor(mTapCount % 2 == 0 ?
-                            R.color.background : R.color.background2));
+                    if (tocarSlot(x, y)) {
+                        return;
+                    }
                     Vibrator v = (Vibrator) FugitWatchFace.this.getApplicationContext().getSystemService(Context.VIBRATOR_SERVICE);
                     // Vibrate for 500 milliseconds
                     v.vibrate(500);
@@ -281,128 +366,55 @@ public class FugitWatchFace extends CanvasWatchFaceService {
             }
             invalidate();
         }
-        private void situacion(Canvas canvas, Date hAhora){
-
-            Location location = new Location("-31.416666666667", "-64.183333333333");
-            SunriseSunsetCalculator calculator = new SunriseSunsetCalculator(location, TimeZone.getDefault());
-
-            Date hAmanecer = calculator.getCivilSunriseCalendarForDate(Calendar.getInstance()).getTime();
-            Date hAtardecer = calculator.getCivilSunsetCalendarForDate(Calendar.getInstance()).getTime();
-            if (hAhora.after(hAmanecer) && hAhora.before(hAtardecer)){
-                double diff = ((double) (hAhora.getTime() - hAmanecer.getTime()))/ (hAtardecer.getTime() -hAmanecer.getTime());
-                dia(canvas, diff);}
-            else if (hAhora.before(hAmanecer) && hAhora.after(hAtardecer)) {
-                double diff = ((double) (hAhora.getTime() - hAtardecer.getTime()))/ (hAmanecer.getTime() -hAtardecer.getTime());
-                noche(canvas, diff);
-            }else if (hAhora.before(hAmanecer) && hAhora.before(hAtardecer)){
-                // antes del amanecer
-                Calendar ayer = Calendar.getInstance();
-                ayer.add(Calendar.DATE, -1);
-                hAtardecer = calculator.getCivilSunsetCalendarForDate(ayer).getTime();
-                double diff = ((double) (hAhora.getTime() - hAtardecer.getTime()))/ (hAmanecer.getTime() -hAtardecer.getTime());
-                noche(canvas, diff);
-            }else if (hAhora.after(hAmanecer) && hAhora.after(hAtardecer)){
-                // despues del atardecer antes de mañana
-                Calendar mannana = Calendar.getInstance();
-                mannana.add(Calendar.DATE, 1);
-                hAmanecer = calculator.getCivilSunriseCalendarForDate(mannana).getTime();
-                double diff = ((double) (hAhora.getTime() - hAtardecer.getTime()))/ (hAmanecer.getTime() -hAtardecer.getTime());
-                noche(canvas, diff);
+        /**
+         * Runs the tap action of the slot under (x, y), or asks for the permission to show
+         * complications if the watch doesn't have it yet. Returns false if there's no slot there.
+         */
+        private boolean tocarSlot(int x, int y) {
+            for (ComplicationSlot slot : mSlots) {
+                if (!slot.contiene(x, y) || slot.getDatos() == null) {
+                    continue;
+                }
+                if (slot.getDatos().getType() == ComplicationData.TYPE_NO_PERMISSION) {
+                    ComponentName cara = new ComponentName(FugitWatchFace.this, FugitWatchFace.class);
+                    Intent permiso = ComplicationHelperActivity.createPermissionRequestHelperIntent(
+                            FugitWatchFace.this, cara);
+                    startActivity(permiso.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK));
+                    return true;
+                }
+                PendingIntent accion = slot.getTapAction();
+                if (accion == null) {
+                    return false;
+                }
+                try {
+                    accion.send();
+                } catch (PendingIntent.CanceledException e) {
+                    // el proveedor ya no esta, no hay nada que abrir
+                }
+                return true;
             }
-
-        }
-        private void dia(Canvas canvas, double porcentaje){
-            Shader shader = new LinearGradient(0, 0, 0, 320*5/6, Color.rgb(0,255,255), Color.rgb(0,255/3*2,255), Shader.TileMode.CLAMP);
-            mBackgroundPaint.setShader(shader);
-            porcentaje = (porcentaje * 300) -150;
-            canvas.drawRect(0, 0, 320, 320, mBackgroundPaint);
-
-            Bitmap bmpsol = BitmapFactory.decodeResource(getResources(),
-                    R.drawable.sol);
-            canvas.save();
-            canvas.rotate((float) porcentaje , 320/2, 320*6/10);
-            canvas.drawBitmap(bmpsol, 320/2-50/2, 0, mAstroPaint);
-            canvas.restore();
-        }
-        private void noche(Canvas canvas, double porcentaje){
-            Shader shader = new LinearGradient(0, 0, 0, 320*5/6, Color.rgb(0,0,0), Color.rgb(0,0,50), Shader.TileMode.CLAMP);
-            mBackgroundPaint.setShader(shader);
-            porcentaje = (porcentaje * 300) -150;
-            canvas.drawRect(0, 0, 320, 320, mBackgroundPaint);
-
-            Bitmap bmpluna = BitmapFactory.decodeResource(getResources(),
-                    R.drawable.luna);
-            Bitmap bmpestrellas = BitmapFactory.decodeResource(getResources(),
-                    R.drawable.estrellas);
-            canvas.drawBitmap(bmpestrellas, 0, 0, mAstroPaint);
-            canvas.save();
-            canvas.rotate((float) porcentaje , 320/2, 320*6/10);
-            canvas.drawBitmap(bmpluna, 320/2-50/2, 0, mAstroPaint);
-            canvas.restore();
+            return false;
         }
+
         @Override
         public void onDraw(Canvas canvas, Rect bounds) {
             //actualizo la hora
-            mTime = Calendar.getInstance();
-
-            situacion(canvas, mTime.getTime());
-            // Draw the background.
-
-            //genero las cadenas para la fecha
-            Date fecha = mTime.getTime();
-            String sDiaMes = fDiaMes.format(fecha);
-            String sDiaSemana = fDiaSemana.format(fecha);
-            String hours = String.format(Locale.getDefault(), "%02d", mTime.get(Calendar.HOUR_OF_DAY));
-            String minutes = String.format(Locale.getDefault(), "%02d", mTime.get(Calendar.MINUTE));
-
-            // genero los arcos para escribir alrededor
-            Path mArcoSuperior = new Path();
-            Path mArcoInferior = new Path();
-            //moto 360 320x290px 241x218dp
-            RectF oval = new RectF(0,0,320,320);
-            mArcoSuperior.addArc(oval, -180, 180);
-            mArcoInferior.addArc(oval, 180, -180);
-            int largoArco = 456; //2*pi * (320-30)/2 / 2;
-
-
-            // escribo alrededor la fecha
-            mDatePaint.setStyle(Paint.Style.STROKE);
-            mDatePaint.setColor(Color.BLACK);
-            mHourPaint.setStyle(Paint.Style.STROKE);
-            mHourPaint.setColor(Color.BLACK);
-            canvas.drawTextOnPath(sDiaMes, mArcoSuperior, largoArco-mDatePaint.measureText(sDiaMes) - 53, 30, mDatePaint);
-
-            //canvas.drawTextOnPath(sDiaMes, mArcoSuperior, largoArco-mDatePaint.measureText(sDiaMes) - 53, 30, mDatePaint);
-            canvas.drawTextOnPath(sDiaSemana, mArcoInferior, largoArco-mDatePaint.measureText(sDiaSemana), -13, mDatePaint);
-
-            // escribo la hora y el titileo del ..
-
-            canvas.save();
-            canvas.rotate(-17, hXOffset, hYOffset);
+            mTime = mTicker.despertar(mRenderer.getPainter());
 
-            canvas.drawText(hours, hXOffset, hYOffset, mHourPaint);
-            canvas.drawText(minutes, mXOffset-15, mYOffset-15, mHourPaint);
-            canvas.restore();
-
-
-            mDatePaint.setStyle(Paint.Style.FILL);
-            mDatePaint.setColor(Color.WHITE);
-            mHourPaint.setStyle(Paint.Style.FILL);
-            mHourPaint.setColor(Color.WHITE);
-            canvas.drawTextOnPath(sDiaMes, mArcoSuperior, largoArco-mDatePaint.measureText(sDiaMes) - 53, 30, mDatePaint);
-
-            //canvas.drawTextOnPath(sDiaMes, mArcoSuperior, largoArco-mDatePaint.measureText(sDiaMes) - 53, 30, mDatePaint);
-            canvas.drawTextOnPath(sDiaSemana, mArcoInferior, largoArco-mDatePaint.measureText(sDiaSemana), -13, mDatePaint);
-
-            // escribo la hora y el titileo del ..
-
-            canvas.save();
-            canvas.rotate(-17, hXOffset, hYOffset);
-
-            canvas.drawText(hours, hXOffset, hYOffset, mHourPaint);
-            canvas.drawText(minutes, mXOffset-15, mYOffset-15, mHourPaint);
-            canvas.restore();
+            mRenderer.draw(canvas, mTime);
 
+            // los textos que dependen de la hora ("en 5 min") cambian a lo sumo una vez por minuto
+            int minuto = mTime.get(Calendar.MINUTE);
+            if (minuto != mMinutoSlots) {
+                mMinutoSlots = minuto;
+                long ahora = mTime.getTimeInMillis();
+                for (ComplicationSlot slot : mSlots) {
+                    slot.actualizar(ahora);
+                }
+            }
+            for (ComplicationSlot slot : mSlots) {
+                slot.draw(canvas);
+            }
         }
 
         /**
@@ -430,9 +442,7 @@ public class FugitWatchFace extends CanvasWatchFaceService {
         private void handleUpdateTimeMessage() {
             invalidate();
             if (shouldTimerBeRunning()) {
-                long timeMs = System.currentTimeMillis();
-                long delayMs = INTERACTIVE_UPDATE_RATE_MS
-                        - (timeMs % INTERACTIVE_UPDATE_RATE_MS);
+                long delayMs = mTicker.demora(INTERACTIVE_UPDATE_RATE_MS);
                 mUpdateTimeHandler.sendEmptyMessageDelayed(MSG_UPDATE_TIME, delayMs);
             }
         }